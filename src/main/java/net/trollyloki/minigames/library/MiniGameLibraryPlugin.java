@@ -1,9 +1,14 @@
 package net.trollyloki.minigames.library;
 
 import net.trollyloki.minigames.library.commands.PartyCommand;
+import net.trollyloki.minigames.library.commands.PlayerNameIndex;
 import net.trollyloki.minigames.library.managers.MiniGameManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+
 public class MiniGameLibraryPlugin extends JavaPlugin {
 
     private MiniGameManager manager;
@@ -13,8 +18,34 @@ public class MiniGameLibraryPlugin extends JavaPlugin {
 
         manager = new MiniGameManager(this);
         getServer().getPluginManager().registerEvents(manager, this);
-        getCommand("party").setExecutor(new PartyCommand(manager));
+        getServer().getPluginManager().registerEvents(manager.getChatRouter(), this);
+
+        PlayerNameIndex names = new PlayerNameIndex(getServer());
+        getServer().getPluginManager().registerEvents(names, this);
+        names.buildAsync(this);
+        getCommand("party").setExecutor(new PartyCommand(manager, names));
+
+        try {
+            int parties = manager.enablePersistence(new File(getDataFolder(), "parties"));
+            getLogger().info("Restored " + parties + " parties");
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Failed to restore saved parties, parties will not be saved", e);
+        }
+
+        try { // game plugins register their checkpoint types and then call restoreCheckpoints
+            manager.enableCheckpoints(new File(getDataFolder(), "checkpoints"), 200);
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Failed to enable game checkpoints", e);
+        }
+
+    }
 
+    @Override
+    public void onDisable() {
+        if (manager != null) {
+            manager.disableCheckpoints();
+            manager.disablePersistence();
+        }
     }
 
     /**
@@ -1,12 +1,13 @@
 package net.trollyloki.minigames.library.commands;
 
-import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.chat.hover.content.Text;
+import net.trollyloki.minigames.library.managers.ChatChannel;
 import net.trollyloki.minigames.library.managers.MiniGameManager;
 import net.trollyloki.minigames.library.managers.Party;
+import net.trollyloki.minigames.library.utils.Broadcast;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
@@ -20,11 +21,16 @@ import java.util.*;
 public class PartyCommand implements CommandExecutor, TabCompleter {
 
     public static final String HIJACK_PERMISSION = "party.hijack";
+    public static final int INVITES_PER_TICK = 20;
+
+    private static final String SEPARATOR = ChatColor.BLUE + "----------------------------------------";
 
     private final MiniGameManager manager;
+    private final PlayerNameIndex names;
 
-    public PartyCommand(MiniGameManager manager) {
+    public PartyCommand(MiniGameManager manager, PlayerNameIndex names) {
         this.manager = manager;
+        this.names = names;
     }
 
     @Override
@@ -110,12 +116,9 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
                     return false;
                 }
 
-                for (UUID uuid : party.getPlayers()) {
-                    party.remove(uuid);
-                    Player removee = manager.getPlugin().getServer().getPlayer(uuid);
-                    if (removee != null)
-                        display(removee, ChatColor.YELLOW + player.getName() + " disbanded the party");
-                }
+                Set<Player> removees = new HashSet<>(party.getOnlinePlayers()); // copy before the view is emptied
+                party.disband();
+                Broadcast.framed(SEPARATOR, ChatColor.YELLOW + player.getName() + " disbanded the party").send(removees);
                 return true;
 
             }
@@ -184,6 +187,36 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
 
             }
 
+            else if (args[0].equalsIgnoreCase("chat")) {
+
+                ChatChannel channel;
+                if (args.length > 1) {
+                    try {
+                        channel = ChatChannel.valueOf(args[1].toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        sender.sendMessage(ChatColor.RED + "Usage: /" + label + " chat [all|party|game]");
+                        return false;
+                    }
+                } else { // toggle between party and global chat
+                    channel = manager.getChatRouter().getChannel(player.getUniqueId()) == ChatChannel.PARTY
+                            ? ChatChannel.ALL : ChatChannel.PARTY;
+                }
+
+                if (channel == ChatChannel.PARTY && party == null) {
+                    sender.sendMessage(ChatColor.RED + "You are not in a party");
+                    return false;
+                }
+                if (channel == ChatChannel.GAME && !manager.inGame(player.getUniqueId())) {
+                    sender.sendMessage(ChatColor.RED + "You are not in a game");
+                    return false;
+                }
+
+                manager.getChatRouter().setChannel(player.getUniqueId(), channel);
+                sender.sendMessage(ChatColor.YELLOW + "You are now talking in " + channel.name().toLowerCase() + " chat");
+                return true;
+
+            }
+
             else if (args[0].equalsIgnoreCase("leave")) {
 
                 if (party == null) {
@@ -287,32 +320,49 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
                     return false;
                 }
 
-                Collection<? extends Player> players = args[i].equalsIgnoreCase("all")
-                        ? manager.getPlugin().getServer().getOnlinePlayers()
-                        : Collections.singleton(sender.getServer().getPlayerExact(args[i])); // find online player with given name
-                for (Player invitee : players) {
-                    if (invitee == null) {
-                        sender.sendMessage(ChatColor.RED + args[i] + " is not online");
-                        continue;
+                if (args[i].equalsIgnoreCase("all")) {
+
+                    List<UUID> players = new ArrayList<>();
+                    for (Player online : manager.getPlugin().getServer().getOnlinePlayers())
+                        players.add(online.getUniqueId());
+
+                    List<UUID> invited = party.inviteAll(players);
+                    if (invited.isEmpty()) {
+                        sender.sendMessage(ChatColor.RED + "There are no players to invite");
+                        return false;
                     }
 
-                    try {
-                        if (party.invite(invitee.getUniqueId())) { // player was invited
-                            display(party, ChatColor.YELLOW + player.getName() + " invited " + invitee.getName() + " to the party");
+                    display(party, ChatColor.YELLOW + player.getName() + " invited " + invited.size() + " players to the party");
+                    Broadcast invite = inviteMessage(player.getName()); // built once and sent to every invitee
+                    Party finalParty = party;
+                    manager.deferEach(invited, INVITES_PER_TICK, uuid -> {
+                        Player invitee = manager.getOnlinePlayer(uuid);
+                        if (invitee != null && finalParty.isInvited(uuid)) // skip players who left or already joined
+                            invite.send(invitee);
+                    });
+                    return true;
 
-                            TextComponent click = new TextComponent(ChatColor.GOLD + "Click here to accept");
-                            click.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/party join " + player.getName()));
-                            click.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Click to join")));
-                            display(invitee, new TextComponent(ChatColor.YELLOW + player.getName() + " invited you to their party. "), click);
+                }
 
-                        } else { // player was already invited
-                            sender.sendMessage(ChatColor.RED + invitee.getName() + " has already been invited to the party");
-                        }
-                    } catch (IllegalStateException e) { // player is already in the party
-                        sender.sendMessage(ChatColor.RED + invitee.getName() + " is already in the party");
+                Player invitee = sender.getServer().getPlayerExact(args[i]); // find online player with given name
+                if (invitee == null) {
+                    sender.sendMessage(ChatColor.RED + args[i] + " is not online");
+                    return false;
+                }
+
+                try {
+                    if (party.invite(invitee.getUniqueId())) { // player was invited
+                        display(party, ChatColor.YELLOW + player.getName() + " invited " + invitee.getName() + " to the party");
+                        inviteMessage(player.getName()).send(invitee);
+                        return true;
+                    } else { // player was already invited
+                        sender.sendMessage(ChatColor.RED + invitee.getName() + " has already been invited to the party");
+                        return false;
                     }
+                } catch (IllegalStateException e) { // player is already in the party
+                    sender.sendMessage(ChatColor.RED + invitee.getName() + " is already in the party");
+                    return false;
                 }
-                return true;
 
             }
 
@@ -321,7 +371,7 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
         String usage = ChatColor.RED + "Usage: /" + label + " <list|add|remove|disband|join";
         if (sender.hasPermission(HIJACK_PERMISSION))
             usage += "|hijack";
-        usage += "|leave|promote|demote>";
+        usage += "|chat|leave|promote|demote>";
         sender.sendMessage(usage);
         return false;
 
@@ -338,18 +388,59 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
                 return new ArrayList<>();
             }
 
-            else if (args[0].equalsIgnoreCase("add")
-                    || args[0].equalsIgnoreCase("remove")
-                    || args[0].equalsIgnoreCase("join")
-                    || (args[0].equalsIgnoreCase("hijack") && sender.hasPermission(HIJACK_PERMISSION))
+            else if (args[0].equalsIgnoreCase("chat")) {
+
+                if (args.length > 2) {
+                    return new ArrayList<>();
+                }
+
+                ArrayList<String> list = new ArrayList<>();
+                for (ChatChannel channel : ChatChannel.values())
+                    list.add(channel.name().toLowerCase());
+                filter(list, args[1]);
+                return list;
+
+            }
+
+            else if (args[0].equalsIgnoreCase("remove")
                     || args[0].equalsIgnoreCase("promote")
                     || args[0].equalsIgnoreCase("demote")) {
 
+                if (args.length > 2 || !(sender instanceof Player)) {
+                    return new ArrayList<>();
+                }
+
+                Party party = manager.getParty(((Player) sender).getUniqueId());
+                if (party == null) {
+                    return new ArrayList<>();
+                }
+
+                return names.complete(args[1], player -> party.contains(player.getUniqueId())); // only party members
+
+            }
+
+            else if (args[0].equalsIgnoreCase("join")) {
+
+                if (args.length > 2 || !(sender instanceof Player)) {
+                    return new ArrayList<>();
+                }
+
+                UUID uuid = ((Player) sender).getUniqueId();
+                return names.complete(args[1], player -> { // only players whose party invited the sender
+                    Party party = manager.getParty(player.getUniqueId());
+                    return party != null && party.isInvited(uuid);
+                });
+
+            }
+
+            else if (args[0].equalsIgnoreCase("add")
+                    || (args[0].equalsIgnoreCase("hijack") && sender.hasPermission(HIJACK_PERMISSION))) {
+
                 if (args.length > 2) {
                     return new ArrayList<>();
                 }
 
-                return getFilteredPlayers(args[1]);
+                return names.complete(args[1]);
 
             }
 
@@ -363,6 +454,7 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
         list.add("join");
         if (sender.hasPermission(HIJACK_PERMISSION))
             list.add("hijack");
+        list.add("chat");
         list.add("leave");
         list.add("promote");
         list.add("demote");
@@ -374,16 +466,14 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
     }
 
     private OfflinePlayer getOfflinePlayer(String name) {
-        OfflinePlayer player = manager.getPlugin().getServer().getPlayerExact(name); // find online player with given name
-        if (player == null) { // if offline, search usercache for player with given name
-            for (OfflinePlayer p : manager.getPlugin().getServer().getOfflinePlayers()) {
-                if (name.equalsIgnoreCase(p.getName())) {
-                    player = p;
-                    break;
-                }
-            }
-        }
-        return player;
+        return names.getPlayer(name); // find online player with given name, or search the name index if offline
+    }
+
+    private static Broadcast inviteMessage(String inviter) {
+        TextComponent click = new TextComponent(ChatColor.GOLD + "Click here to accept");
+        click.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/party join " + inviter));
+        click.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Click to join")));
+        return Broadcast.framed(SEPARATOR, new TextComponent(ChatColor.YELLOW + inviter + " invited you to their party. "), click);
     }
 
     private void filter(List<String> list, String start) {
@@ -391,41 +481,12 @@ public class PartyCommand implements CommandExecutor, TabCompleter {
         list.removeIf(string -> !string.toLowerCase().startsWith(finalStart));
     }
 
-    private List<String> getFilteredPlayers(String start) {
-        start = start.toLowerCase();
-
-        ArrayList<String> list = new ArrayList<>();
-        for (Player player : manager.getPlugin().getServer().getOnlinePlayers()) {
-            if (player.getName().toLowerCase().startsWith(start))
-                list.add(player.getName());
-        }
-
-        return list;
+    private static void display(CommandSender sender, String... messages) {
+        Broadcast.framed(SEPARATOR, messages).send(sender);
     }
 
-    private static void separator(CommandSender sender) {
-        sender.sendMessage(ChatColor.BLUE + "----------------------------------------");
-    }
-
-    private void display(CommandSender sender, BaseComponent... messages) {
-        separator(sender);
-        sender.spigot().sendMessage(messages);
-        separator(sender);
-    }
-
-    private void display(CommandSender sender, String... messages) {
-        separator(sender);
-        for (String message : messages)
-            sender.sendMessage(message);
-        separator(sender);
-    }
-
-    private void display(Party party, String... messages) {
-        for (UUID uuid : party.getPlayers()) {
-            Player player = manager.getPlugin().getServer().getPlayer(uuid);
-            if (player != null)
-                display(player, messages);
-        }
+    private static void display(Party party, String... messages) {
+        party.broadcast(Broadcast.framed(SEPARATOR, messages));
     }
 
 }
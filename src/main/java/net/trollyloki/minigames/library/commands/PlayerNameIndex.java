@@ -0,0 +1,215 @@
+package net.trollyloki.minigames.library.commands;
+
+import net.trollyloki.minigames.library.utils.NameTrie;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive index from player names to UUIDs, used to look up offline players by name without
+ * scanning every player that has ever joined the server
+ * <p>
+ * The index is {@link #buildAsync(Plugin) built off the main thread} from the players that have joined the
+ * server, keeping the players that played most recently, and is kept current as players join. Until it is
+ * built, only online players and players who joined since are found. It holds at most a fixed amount of
+ * names, evicting the least recently used ones, so players who were evicted can only be found again once
+ * they rejoin
+ * <p>
+ * The names of online players are also kept in a prefix tree for tab completion
+ */
+public class PlayerNameIndex implements Listener {
+
+    /**
+     * Default maximum amount of names in the index
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final Server server;
+    private final int capacity;
+    private final LinkedHashMap<String, UUID> names;
+    private final NameTrie<Player> online;
+    private boolean built = false, building = false;
+
+    /**
+     * Constructs a new player name index
+     *
+     * @param server Server
+     * @param capacity Maximum amount of names in the index
+     * @throws IllegalArgumentException If the capacity is less than one
+     */
+    public PlayerNameIndex(Server server, int capacity) throws IllegalArgumentException {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        this.server = server;
+        this.capacity = capacity;
+        this.names = new LinkedHashMap<String, UUID>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.online = new NameTrie<>();
+        for (Player player : server.getOnlinePlayers())
+            online.put(player.getName(), player);
+    }
+
+    /**
+     * Constructs a new player name index with the {@link #DEFAULT_CAPACITY default capacity}
+     *
+     * @param server Server
+     */
+    public PlayerNameIndex(Server server) {
+        this(server, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the player with the given name, ignoring case
+     *
+     * @param name Name
+     * @return Online or offline player, or null if no indexed player has the given name
+     */
+    public OfflinePlayer getPlayer(String name) {
+        Player online = server.getPlayerExact(name);
+        if (online != null)
+            return online;
+
+        String key = name.toLowerCase(Locale.ROOT);
+        UUID uuid = names.get(key);
+        if (uuid == null)
+            return null;
+        OfflinePlayer player = server.getOfflinePlayer(uuid);
+        if (!name.equalsIgnoreCase(player.getName())) { // player has changed their name since it was indexed
+            names.remove(key);
+            return null;
+        }
+        return player;
+    }
+
+    /**
+     * Gets the names of the online players whose names start with the given prefix, ignoring case
+     *
+     * @param prefix Prefix
+     * @return List of names
+     */
+    public List<String> complete(String prefix) {
+        return complete(prefix, player -> true);
+    }
+
+    /**
+     * Gets the names of the online players whose names start with the given prefix, ignoring case, that
+     * match a filter
+     *
+     * @param prefix Prefix
+     * @param filter Filter
+     * @return List of names
+     */
+    public List<String> complete(String prefix, Predicate<? super Player> filter) {
+        List<Player> players = online.startingWith(prefix, filter);
+        ArrayList<String> list = new ArrayList<>(players.size());
+        for (Player player : players)
+            list.add(player.getName());
+        return list;
+    }
+
+    /**
+     * Adds the given player to this index
+     *
+     * @param player Player
+     */
+    public void put(OfflinePlayer player) {
+        String name = player.getName();
+        if (name != null)
+            names.put(name.toLowerCase(Locale.ROOT), player.getUniqueId());
+    }
+
+    /**
+     * Starts building this index off the main thread, so that looking up an offline player never has to
+     * read every player that has joined the server
+     * <p>
+     * Until the index is built, only online players and players who joined since this was called are found
+     *
+     * @param plugin Plugin to schedule the build with
+     */
+    public void buildAsync(Plugin plugin) {
+        if (built || building)
+            return;
+        building = true;
+        server.getScheduler().runTaskAsynchronously(plugin, () -> {
+            IndexedName[] players = snapshot(server.getOfflinePlayers());
+            if (plugin.isEnabled())
+                server.getScheduler().runTask(plugin, () -> build(players));
+        });
+    }
+
+    /**
+     * Reads the name, UUID and last played time of each of the given players once, and sorts them from
+     * least to most recently played
+     *
+     * @param players Players
+     * @return Array of indexed names
+     */
+    private static IndexedName[] snapshot(OfflinePlayer[] players) {
+        IndexedName[] names = new IndexedName[players.length];
+        int count = 0;
+        for (OfflinePlayer player : players) {
+            String name = player.getName();
+            if (name != null)
+                names[count++] = new IndexedName(name.toLowerCase(Locale.ROOT), player.getUniqueId(),
+                        player.getLastPlayed());
+        }
+        names = Arrays.copyOf(names, count);
+        Arrays.sort(names, Comparator.comparingLong(name -> name.lastPlayed));
+        return names;
+    }
+
+    /**
+     * Fills this index from the given players, so that the players who played most recently are kept if
+     * there are more players than names this index can hold
+     *
+     * @param players Indexed names sorted from least to most recently played
+     */
+    private void build(IndexedName[] players) {
+        built = true;
+        building = false;
+        HashMap<String, UUID> joined = new HashMap<>(names); // keep players indexed since enabling
+        for (int i = Math.max(players.length - capacity, 0); i < players.length; i++) // the rest would be evicted
+            names.put(players[i].name, players[i].uuid);
+        for (Map.Entry<String, UUID> entry : joined.entrySet())
+            names.put(entry.getKey(), entry.getValue());
+    }
+
+    private static final class IndexedName {
+
+        private final String name;
+        private final UUID uuid;
+        private final long lastPlayed;
+
+        private IndexedName(String name, UUID uuid, long lastPlayed) {
+            this.name = name;
+            this.uuid = uuid;
+            this.lastPlayed = lastPlayed;
+        }
+
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        put(event.getPlayer());
+        online.put(event.getPlayer().getName(), event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        online.remove(event.getPlayer().getName(), event.getPlayer());
+    }
+
+}
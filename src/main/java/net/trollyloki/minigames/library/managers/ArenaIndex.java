@@ -0,0 +1,342 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import org.bukkit.World;
+
+import java.util.*;
+
+/**
+ * Index of which games have regions in each chunk, used to route world events by location
+ * <p>
+ * Games without any regions are unbounded and receive world events from everywhere. Regions that span more
+ * than {@link #MAX_INDEXED_CHUNKS} chunks are not split into chunk keys, but kept in a short list for their
+ * world. Lookups in a world with large regions merge them into the games of the chunk once, and reuse the
+ * merged array until the regions of that world change
+ */
+class ArenaIndex {
+
+    /**
+     * Largest amount of chunks a region can span before it is checked linearly instead of indexed by chunk
+     */
+    static final long MAX_INDEXED_CHUNKS = 4096;
+
+    private static final Game[] EMPTY = new Game[0];
+    private static final LargeRegion[] NO_LARGE_REGIONS = new LargeRegion[0];
+
+    private final HashMap<UUID, ChunkTable> worlds;
+    private Game[] unbounded;
+
+    /**
+     * Constructs a new arena index
+     */
+    ArenaIndex() {
+        this.worlds = new HashMap<>();
+        this.unbounded = EMPTY;
+    }
+
+    /**
+     * Packs chunk coordinates into a single key
+     *
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return Chunk key
+     */
+    static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((long) chunkZ << 32);
+    }
+
+    /**
+     * Gets the games that are unbounded
+     *
+     * @return Array of games, which must not be modified
+     */
+    Game[] getUnbounded() {
+        return unbounded;
+    }
+
+    /**
+     * Gets the games that have a region in the chunk containing the given block
+     *
+     * @param world World
+     * @param x Block X coordinate
+     * @param z Block Z coordinate
+     * @return Array of games, which must not be modified
+     */
+    Game[] getGames(World world, int x, int z) {
+        ChunkTable table = worlds.get(world.getUID());
+        if (table == null)
+            return EMPTY;
+        int chunkX = x >> 4, chunkZ = z >> 4;
+        long key = chunkKey(chunkX, chunkZ);
+        if (table.large.length == 0) {
+            Game[] games = table.get(key);
+            return games != null ? games : EMPTY;
+        }
+
+        if (table.merged == null || table.merged.size() >= MAX_INDEXED_CHUNKS) // bounded like an indexed region
+            table.merged = new ChunkTable();
+        Game[] games = table.merged.get(key);
+        if (games == null) {
+            games = table.get(key);
+            if (games == null)
+                games = EMPTY;
+            for (LargeRegion large : table.large) {
+                if (covers(large.region, chunkX, chunkZ))
+                    games = with(games, large.game);
+            }
+            table.merged.put(key, games);
+        }
+        return games;
+    }
+
+    /**
+     * Gets the amount of chunks the given region spans
+     *
+     * @param region Region
+     * @return Amount of chunks
+     */
+    static long chunkCount(BlockRegion region) {
+        return ((long) (region.getMaxX() >> 4) - (region.getMinX() >> 4) + 1)
+                * ((long) (region.getMaxZ() >> 4) - (region.getMinZ() >> 4) + 1);
+    }
+
+    private static boolean isLarge(BlockRegion region) {
+        return chunkCount(region) > MAX_INDEXED_CHUNKS;
+    }
+
+    /**
+     * Adds a game that has no regions yet
+     *
+     * @param game Game
+     */
+    void addUnbounded(Game game) {
+        unbounded = with(unbounded, game);
+    }
+
+    /**
+     * Removes a game from the unbounded games
+     *
+     * @param game Game
+     */
+    void removeUnbounded(Game game) {
+        unbounded = without(unbounded, game);
+    }
+
+    /**
+     * Indexes a region of the given game
+     *
+     * @param game Game
+     * @param region Region
+     */
+    void addRegion(Game game, BlockRegion region) {
+        ChunkTable table = worlds.computeIfAbsent(region.getWorld(), w -> new ChunkTable());
+        table.merged = null;
+        if (isLarge(region)) { // indexing every chunk of a huge region would stall the main thread
+            LargeRegion[] large = Arrays.copyOf(table.large, table.large.length + 1);
+            large[table.large.length] = new LargeRegion(game, region);
+            table.large = large;
+            return;
+        }
+        for (int cx = region.getMinX() >> 4; cx <= region.getMaxX() >> 4; cx++) {
+            for (int cz = region.getMinZ() >> 4; cz <= region.getMaxZ() >> 4; cz++) {
+                long key = chunkKey(cx, cz);
+                Game[] games = table.get(key);
+                table.put(key, games == null ? new Game[] {game} : with(games, game));
+            }
+        }
+    }
+
+    /**
+     * Removes a region of the given game from the index, keeping chunks still covered by its other regions
+     *
+     * @param game Game
+     * @param region Region that was removed
+     * @param remaining Regions the game still has
+     */
+    void removeRegion(Game game, BlockRegion region, List<BlockRegion> remaining) {
+        ChunkTable table = worlds.get(region.getWorld());
+        if (table == null)
+            return;
+        table.merged = null;
+        if (isLarge(region)) {
+            for (int i = 0; i < table.large.length; i++) {
+                LargeRegion large = table.large[i];
+                if (large.game == game && large.region.equals(region)) {
+                    LargeRegion[] updated = new LargeRegion[table.large.length - 1];
+                    System.arraycopy(table.large, 0, updated, 0, i);
+                    System.arraycopy(table.large, i + 1, updated, i, updated.length - i);
+                    table.large = updated.length == 0 ? NO_LARGE_REGIONS : updated;
+                    break;
+                }
+            }
+        } else {
+            removeChunks(table, game, region, remaining);
+        }
+        if (table.size() == 0 && table.large.length == 0)
+            worlds.remove(region.getWorld());
+    }
+
+    private static void removeChunks(ChunkTable table, Game game, BlockRegion region, List<BlockRegion> remaining) {
+        for (int cx = region.getMinX() >> 4; cx <= region.getMaxX() >> 4; cx++) {
+            for (int cz = region.getMinZ() >> 4; cz <= region.getMaxZ() >> 4; cz++) {
+                if (covers(remaining, region.getWorld(), cx, cz))
+                    continue;
+                long key = chunkKey(cx, cz);
+                Game[] games = table.get(key);
+                if (games == null)
+                    continue;
+                games = without(games, game);
+                if (games.length == 0)
+                    table.remove(key);
+                else
+                    table.put(key, games);
+            }
+        }
+    }
+
+    /**
+     * Checks if any of the given regions that are indexed by chunk overlaps the given chunk
+     *
+     * @param regions Regions
+     * @param world World UUID
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return {@code true} if the chunk is covered
+     */
+    private static boolean covers(List<BlockRegion> regions, UUID world, int chunkX, int chunkZ) {
+        for (BlockRegion region : regions) {
+            if (region.getWorld().equals(world) && !isLarge(region) && covers(region, chunkX, chunkZ))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean covers(BlockRegion region, int chunkX, int chunkZ) {
+        return region.getMinX() >> 4 <= chunkX && region.getMaxX() >> 4 >= chunkX
+                && region.getMinZ() >> 4 <= chunkZ && region.getMaxZ() >> 4 >= chunkZ;
+    }
+
+    private static Game[] with(Game[] games, Game game) {
+        for (Game g : games) {
+            if (g == game)
+                return games;
+        }
+        Game[] updated = Arrays.copyOf(games, games.length + 1);
+        updated[games.length] = game;
+        return updated;
+    }
+
+    private static Game[] without(Game[] games, Game game) {
+        for (int i = 0; i < games.length; i++) {
+            if (games[i] == game) {
+                if (games.length == 1)
+                    return EMPTY;
+                Game[] updated = new Game[games.length - 1];
+                System.arraycopy(games, 0, updated, 0, i);
+                System.arraycopy(games, i + 1, updated, i, games.length - i - 1);
+                return updated;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Region that is too large to be indexed by chunk
+     */
+    private static class LargeRegion {
+
+        private final Game game;
+        private final BlockRegion region;
+
+        private LargeRegion(Game game, BlockRegion region) {
+            this.game = game;
+            this.region = region;
+        }
+
+    }
+
+    /**
+     * Open addressing hash table from packed chunk keys to arrays of games, along with the large regions of
+     * its world and the chunks they were already merged into
+     */
+    private static class ChunkTable {
+
+        private LargeRegion[] large = NO_LARGE_REGIONS;
+        private ChunkTable merged = null;
+        private long[] keys = new long[16];
+        private Game[][] values = new Game[16][];
+        private int size = 0;
+
+        private static int hash(long key) {
+            key ^= key >>> 33;
+            key *= 0xFF51AFD7ED558CCDL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Game[] get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key)
+                    return values[i];
+            }
+            return null;
+        }
+
+        void put(long key, Game[] value) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > keys.length)
+                resize(keys.length * 2);
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key)
+                    break;
+            }
+            if (values[i] == null)
+                return;
+
+            // shift following entries back so that lookups never stop early at the removed slot
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            values[i] = null;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Game[][] oldValues = values;
+            keys = new long[capacity];
+            values = new Game[capacity][];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null)
+                    put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+    }
+
+}
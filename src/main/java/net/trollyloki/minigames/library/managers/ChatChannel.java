@@ -0,0 +1,23 @@
+package net.trollyloki.minigames.library.managers;
+
+/**
+ * Chat channels that a player's chat messages can be sent to
+ */
+public enum ChatChannel {
+
+    /**
+     * Messages are sent to everyone as usual
+     */
+    ALL,
+
+    /**
+     * Messages are only sent to the online players in the sender's party
+     */
+    PARTY,
+
+    /**
+     * Messages are only sent to the online players in the sender's game
+     */
+    GAME
+
+}
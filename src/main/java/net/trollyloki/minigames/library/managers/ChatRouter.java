@@ -0,0 +1,131 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener that sends chat messages of players who selected a party or game chat channel only to the
+ * members of that party or game
+ * <p>
+ * Recipients are resolved from the {@link MembershipRegistry} on the async chat thread, so chat never
+ * waits for the main thread. The channel prefix is added at {@link EventPriority#LOW} so that chat formatting
+ * plugins build on it, while recipients are only narrowed at {@link EventPriority#HIGHEST}, after plugins
+ * that rebuild them have run
+ */
+public class ChatRouter implements Listener {
+
+    private final MembershipRegistry membership;
+    private final ConcurrentHashMap<UUID, ChatChannel> channels;
+
+    /**
+     * Constructs a new chat router
+     *
+     * @param membership Membership registry
+     */
+    ChatRouter(MembershipRegistry membership) {
+        this.membership = membership;
+        this.channels = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the chat channel that the given player is talking in
+     *
+     * @param player Player
+     * @return Chat channel
+     */
+    public ChatChannel getChannel(UUID player) {
+        return channels.getOrDefault(player, ChatChannel.ALL);
+    }
+
+    /**
+     * Sets the chat channel that the given player is talking in
+     * <p>
+     * Players are moved back to {@link ChatChannel#ALL} when they quit, or when they chat in a channel while
+     * not in a party or game
+     *
+     * @param player Player
+     * @param channel Chat channel
+     * @return Previous chat channel
+     */
+    public ChatChannel setChannel(UUID player, ChatChannel channel) {
+        ChatChannel old = channel == ChatChannel.ALL ? channels.remove(player) : channels.put(player, channel);
+        return old != null ? old : ChatChannel.ALL;
+    }
+
+    /**
+     * Gets the prefix added to the format of messages in the given channel
+     *
+     * @param channel Chat channel
+     * @return Prefix
+     */
+    protected String getPrefix(ChatChannel channel) {
+        switch (channel) {
+            case PARTY:
+                return ChatColor.BLUE + "[Party] " + ChatColor.RESET;
+            case GAME:
+                return ChatColor.GREEN + "[Game] " + ChatColor.RESET;
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Gets the online members of the channel the given player is talking in
+     *
+     * @param player Player
+     * @param channel Chat channel
+     * @return Set of online players, or null if the player is talking in global chat
+     */
+    private Set<Player> getMembers(UUID player, ChatChannel channel) {
+        if (channel == null)
+            return null;
+        Set<Player> members = channel == ChatChannel.PARTY
+                ? membership.getOnlinePartyMembers(player)
+                : membership.getOnlineGameMembers(player);
+        if (members.isEmpty()) { // no longer in a party or game, so fall back to global chat
+            channels.remove(player, channel);
+            return null;
+        }
+        return members;
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onAsyncPlayerChat(AsyncPlayerChatEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        ChatChannel channel = channels.get(uuid);
+        if (getMembers(uuid, channel) != null)
+            event.setFormat(getPrefix(channel) + event.getFormat());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onAsyncPlayerChatRecipients(AsyncPlayerChatEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        Set<Player> members = getMembers(uuid, channels.get(uuid));
+        if (members == null)
+            return;
+
+        try {
+            event.getRecipients().retainAll(members);
+        } catch (UnsupportedOperationException e) { // recipients cannot be changed, so send the message directly
+            event.setCancelled(true);
+            String message = String.format(event.getFormat(), event.getPlayer().getDisplayName(), event.getMessage());
+            for (Player member : members)
+                member.sendMessage(message);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        channels.remove(event.getPlayer().getUniqueId());
+    }
+
+}
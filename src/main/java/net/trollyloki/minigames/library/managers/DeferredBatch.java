@@ -0,0 +1,54 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Deferred task that runs an action on a limited amount of items each tick until all items are done
+ * <p>
+ * An exception thrown for one item is logged and does not stop the remaining items
+ *
+ * @param <T> Type of item
+ */
+class DeferredBatch<T> implements Runnable {
+
+    private final MiniGameManager manager;
+    private final ArrayList<T> items;
+    private final int limit;
+    private final Consumer<? super T> action;
+    private int index = 0;
+
+    /**
+     * Constructs a new deferred batch
+     *
+     * @param manager Mini-game manager
+     * @param items Items, which are copied
+     * @param limit Maximum amount of items to process each tick
+     * @param action Action
+     */
+    DeferredBatch(MiniGameManager manager, Collection<? extends T> items, int limit, Consumer<? super T> action) {
+        this.manager = manager;
+        this.items = new ArrayList<>(items);
+        this.limit = limit;
+        this.action = action;
+    }
+
+    @Override
+    public void run() {
+        int end = Math.min(index + limit, items.size());
+        while (index < end) {
+            T item = items.get(index);
+            items.set(index++, null); // release items that are done
+            try {
+                action.accept(item);
+            } catch (Throwable e) {
+                manager.getPlugin().getLogger().log(Level.SEVERE, "Exception while running deferred batch on " + item, e);
+            }
+        }
+        if (index < items.size())
+            manager.defer(this);
+    }
+
+}
@@ -1,38 +1,68 @@
 package net.trollyloki.minigames.library.managers;
 
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import net.trollyloki.minigames.library.utils.Broadcast;
 import net.trollyloki.minigames.library.utils.GameScoreboard;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.*;
 import org.bukkit.event.player.*;
-import org.bukkit.scheduler.BukkitRunnable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Represents a game
+ * <p>
+ * Event callbacks are only listened for while at least one game overrides them, see {@link GameCallback}
  */
-public abstract class Game extends BukkitRunnable implements AutoCloseable {
+public abstract class Game implements Runnable, AutoCloseable {
 
     private final MiniGameManager manager;
-    private final HashSet<UUID> players;
+    private final Set<UUID> players;
+    private final OnlineMembers onlinePlayers;
     private final GameScoreboard scoreboard;
-    private boolean invisibility = false;
+    private final GameVisibility visibility;
+    private int tickInterval = 1;
+    private boolean paused = false, cancelled = false;
+    private long tickTime = 0, averageTickTime = 0;
+    private final HashMap<GameEventRoute, GameEventSubscription[]> subscriptions;
+    private final ArrayList<BlockRegion> regions;
+    private String checkpointType = null;
+    private UUID checkpointId = null;
 
     /**
      * Constructs a new game
      */
     public Game(MiniGameManager manager) {
         this.manager = manager;
-        this.players = new HashSet<>();
+        this.players = ConcurrentHashMap.newKeySet();
+        this.onlinePlayers = new OnlineMembers();
         this.scoreboard = new GameScoreboard(manager);
+        this.visibility = new GameVisibility(manager, this);
+        this.subscriptions = new HashMap<>();
+        this.regions = new ArrayList<>();
 
-        runTaskTimer(manager.getPlugin(), 0, 0);
+        manager.registerGame(this);
     }
 
     /**
-     * Gets a set of players in this game
+     * Gets the set of players that are in this game
+     * <p>
+     * The set is backed by a concurrent set, so it may be read from any thread
      *
      * @return Set of players
      */
@@ -41,12 +71,73 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
     }
 
     /**
-     * Gets a set of online players in this game
+     * Gets a live read-only view of the online players in this game
+     * <p>
+     * The view is kept up to date as players join, quit, are added and are removed, so it should be copied
+     * before changing the players in this game while iterating over it
      *
      * @return Set of online players
      */
     public Set<Player> getOnlinePlayers() {
-        return manager.getOnlinePlayers(players);
+        return onlinePlayers.view();
+    }
+
+    /**
+     * Gets a live read-only view of the online players in this game that is safe to read from any thread
+     *
+     * @return Set of online players
+     */
+    Set<Player> getConcurrentOnlinePlayers() {
+        return onlinePlayers.concurrentView();
+    }
+
+    /**
+     * Sends a broadcast to all the online players in this game
+     *
+     * @param message Broadcast
+     */
+    public void broadcast(Broadcast message) {
+        message.send(onlinePlayers.view());
+    }
+
+    /**
+     * Sends the given lines to all the online players in this game as a single message
+     *
+     * @param lines Lines, which may contain legacy color codes
+     */
+    public void broadcast(String... lines) {
+        broadcast(Broadcast.of(lines));
+    }
+
+    /**
+     * Marks the given player in this game as online
+     *
+     * @param player Player
+     */
+    void setOnline(Player player) {
+        if (players.contains(player.getUniqueId())) {
+            onlinePlayers.add(player);
+            visibility.refresh(player);
+        }
+    }
+
+    /**
+     * Gets the online player instance of the given player in this game
+     *
+     * @param player Player
+     * @return Possibly null player
+     */
+    Player getOnlinePlayer(UUID player) {
+        return onlinePlayers.get(player);
+    }
+
+    /**
+     * Marks the given player in this game as offline
+     *
+     * @param player Player
+     */
+    void setOffline(UUID player) {
+        onlinePlayers.remove(player);
     }
 
     /**
@@ -59,7 +150,14 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
     public boolean add(UUID player) throws IllegalStateException {
         if (!manager.joinGame(player, this))
             throw new IllegalStateException("Given player is in another game");
-        return players.add(player);
+        if (!players.add(player))
+            return false;
+        Player p = manager.getOnlinePlayer(player);
+        if (p != null) {
+            onlinePlayers.add(p);
+            visibility.refresh(p);
+        }
+        return true;
     }
 
     /**
@@ -85,7 +183,9 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
      */
     public boolean remove(UUID player) {
         if (players.remove(player)) {
-            Player p = manager.getOnlinePlayer(player);
+            visibility.remove(player);
+            Player p = onlinePlayers.get(player);
+            onlinePlayers.remove(player);
             if (p != null)
                 p.setScoreboard(manager.getPlugin().getServer().getScoreboardManager().getMainScoreboard());
 
@@ -125,32 +225,502 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
         return scoreboard;
     }
 
+    /**
+     * Gets the regions of this game
+     *
+     * @return List of regions
+     */
+    public List<BlockRegion> getRegions() {
+        return Collections.unmodifiableList(regions);
+    }
+
+    /**
+     * Adds a region to this game's arena
+     * <p>
+     * Players in this game entering or exiting it are passed to
+     * {@link #onPlayerEnterRegion(PlayerMoveEvent, BlockRegion)} and
+     * {@link #onPlayerExitRegion(PlayerMoveEvent, BlockRegion)}, and world events inside it are routed to
+     * this game. A game without any regions receives {@link #onEntityChangeBlock(EntityChangeBlockEvent)}
+     * from everywhere
+     *
+     * @param region Region
+     * @return {@code true} if the region was not already added
+     */
+    public boolean addRegion(BlockRegion region) {
+        if (regions.contains(region))
+            return false;
+        regions.add(region);
+        manager.addRegion(this, region);
+        return true;
+    }
+
+    /**
+     * Removes a region from this game's arena
+     *
+     * @param region Region
+     * @return {@code true} if the region was added
+     */
+    public boolean removeRegion(BlockRegion region) {
+        if (!regions.remove(region))
+            return false;
+        manager.removeRegion(this, region);
+        return true;
+    }
+
+    /**
+     * Checks if the given block is in any of this game's regions
+     *
+     * @param world World
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     * @return {@code true} if the block is in this game's arena
+     */
+    boolean inRegions(World world, int x, int y, int z) {
+        for (int i = 0; i < regions.size(); i++) {
+            if (regions.get(i).contains(world, x, y, z))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Passes a move event to the filtered move callbacks
+     * <p>
+     * Only whole block coordinates are compared, so head rotations and movement within a block never
+     * reach game code. Callbacks are not called once the event has been cancelled
+     *
+     * @param event PlayerMoveEvent
+     */
+    void filterMove(PlayerMoveEvent event) {
+        Location from = event.getFrom(), to = event.getTo();
+        if (to == null)
+            return;
+
+        int fromX = from.getBlockX(), fromY = from.getBlockY(), fromZ = from.getBlockZ();
+        int toX = to.getBlockX(), toY = to.getBlockY(), toZ = to.getBlockZ();
+        if (fromX == toX && fromY == toY && fromZ == toZ && from.getWorld() == to.getWorld())
+            return;
+
+        if (event.isCancelled())
+            return;
+        onPlayerMoveBlock(event);
+
+        if ((fromX >> 4) != (toX >> 4) || (fromZ >> 4) != (toZ >> 4) || from.getWorld() != to.getWorld()) {
+            if (event.isCancelled())
+                return;
+            onPlayerMoveChunk(event);
+        }
+
+        for (int i = 0; i < regions.size(); i++) {
+            BlockRegion region = regions.get(i);
+            boolean wasInside = region.contains(from.getWorld(), fromX, fromY, fromZ);
+            boolean isInside = region.contains(to.getWorld(), toX, toY, toZ);
+            if (wasInside == isInside || event.isCancelled())
+                continue;
+            if (isInside)
+                onPlayerEnterRegion(event, region);
+            else
+                onPlayerExitRegion(event, region);
+        }
+    }
+
+    /**
+     * Gets the amount of ticks between each call to {@link #run()}
+     *
+     * @return Tick interval
+     */
+    public int getTickInterval() {
+        return tickInterval;
+    }
+
+    /**
+     * Sets the amount of ticks between each call to {@link #run()}
+     *
+     * @param ticks Tick interval
+     * @throws IllegalArgumentException If the interval is less than one tick
+     */
+    public void setTickInterval(int ticks) throws IllegalArgumentException {
+        if (ticks < 1)
+            throw new IllegalArgumentException("Tick interval must be at least 1");
+        this.tickInterval = ticks;
+    }
+
+    /**
+     * Checks if this game is paused
+     *
+     * @return {@code true} if {@link #run()} is not currently being called
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses this game, so that {@link #run()} will not be called until it is resumed
+     *
+     * @return {@code true} if this game was not already paused
+     */
+    public boolean pause() {
+        if (paused)
+            return false;
+        paused = true;
+        return true;
+    }
+
+    /**
+     * Resumes this game after it was paused
+     *
+     * @return {@code true} if this game was paused
+     */
+    public boolean resume() {
+        if (!paused)
+            return false;
+        paused = false;
+        return true;
+    }
+
+    /**
+     * Stops this game from being ticked for good, like cancelling the task games used to schedule themselves
+     * <p>
+     * Games are now ticked by their {@link MiniGameManager} instead of extending {@code BukkitRunnable}, so this
+     * only remains for compatibility with games written against older versions
+     *
+     * @deprecated Use {@link #pause()} to stop ticking temporarily or {@link #close()} to end the game
+     */
+    @Deprecated
+    public void cancel() {
+        cancelled = true;
+        manager.stopTicking(this);
+    }
+
+    /**
+     * Checks if this game was stopped from being ticked for good with {@link #cancel()}
+     *
+     * @return {@code true} if this game was cancelled
+     * @deprecated Use {@link #isPaused()} instead
+     */
+    @Deprecated
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the amount of time spent in the last call to {@link #run()}
+     *
+     * @return Time in nanoseconds
+     */
+    public long getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * Gets a moving average of the amount of time spent in {@link #run()}
+     *
+     * @return Time in nanoseconds
+     */
+    public long getAverageTickTime() {
+        return averageTickTime;
+    }
+
+    /**
+     * Records the amount of time spent in a call to {@link #run()}
+     *
+     * @param time Time in nanoseconds
+     */
+    void recordTickTime(long time) {
+        this.tickTime = time;
+        this.averageTickTime += (time - averageTickTime) / 8;
+    }
+
+    /**
+     * Gets the visibility of players in this game
+     *
+     * @return Game visibility
+     */
+    public GameVisibility getVisibility() {
+        return visibility;
+    }
+
     /**
      * Sets invisibility
+     * <p>
+     * This sets the {@link GameVisibility#setDefaultVisible(boolean) default visibility}, so only players
+     * whose visibility actually changes are shown or hidden
      *
-     * @param value {@code true} if players should be able to see other players
+     * @param value {@code true} if players should not be able to see other players
      */
     public void setInvisibility(boolean value) {
-        this.invisibility = value;
-        Set<Player> players = getOnlinePlayers();
-        for (Player player : players) {
-            for (Player p : players) {
-                if (p != player) {
-                    if (value)
-                        player.hidePlayer(manager.getPlugin(), p);
-                    else
-                        player.showPlayer(manager.getPlugin(), p);
+        visibility.setDefaultVisible(!value);
+    }
+
+    /**
+     * Subscribes this game to events of the given class that belong to its players
+     *
+     * @param eventClass Event class
+     * @param key Key used to find the player or entity the event belongs to
+     * @param handler Handler
+     * @param ignoreCancelled {@code true} if cancelled events should be skipped
+     * @param <E> Type of event
+     * @return Subscription
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> GameEventSubscription subscribe(Class<E> eventClass, GameEventKey<? super E> key,
+                                                              Consumer<? super E> handler, boolean ignoreCancelled) {
+        GameEventRoute route = manager.getEventBus().retain(eventClass, key);
+        GameEventSubscription subscription =
+                new GameEventSubscription(this, route, (Consumer<Event>) handler, ignoreCancelled);
+
+        GameEventSubscription[] current = subscriptions.get(route);
+        GameEventSubscription[] updated; // copy on write so handlers can subscribe during dispatch
+        if (current == null)
+            updated = new GameEventSubscription[] {subscription};
+        else {
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+        }
+        subscriptions.put(route, updated);
+        return subscription;
+    }
+
+    /**
+     * Subscribes this game to events of the given class that belong to its players
+     *
+     * @param eventClass Event class
+     * @param key Key used to find the player or entity the event belongs to
+     * @param handler Handler
+     * @param <E> Type of event
+     * @return Subscription
+     */
+    public <E extends Event> GameEventSubscription subscribe(Class<E> eventClass, GameEventKey<? super E> key,
+                                                              Consumer<? super E> handler) {
+        return subscribe(eventClass, key, handler, false);
+    }
+
+    /**
+     * Subscribes this game to events of the given class that belong to its players, using the
+     * {@link GameEventKey#defaultFor(Class) default key} for the event class
+     *
+     * @param eventClass Event class
+     * @param handler Handler
+     * @param <E> Type of event
+     * @return Subscription
+     * @throws IllegalArgumentException If there is no default key for the event class
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> GameEventSubscription subscribe(Class<E> eventClass, Consumer<? super E> handler)
+            throws IllegalArgumentException {
+        return subscribe(eventClass, (GameEventKey<? super E>) GameEventKey.defaultFor(eventClass), handler, false);
+    }
+
+    /**
+     * Subscribes every method annotated with {@link GameEventHandler} that is declared by the lookup class
+     * <p>
+     * Each method is bound to an invoker with {@link LambdaMetafactory}, so events are not passed using
+     * reflection. The lookup should be created with {@code MethodHandles.lookup()} inside the game class so
+     * that private handler methods can be bound
+     *
+     * @param lookup Lookup of a class that this game is an instance of
+     * @return List of subscriptions
+     * @throws IllegalArgumentException If this game is not an instance of the lookup class, or a handler
+     *                                  method is invalid or could not be bound
+     */
+    @SuppressWarnings("unchecked")
+    public List<GameEventSubscription> subscribeAll(MethodHandles.Lookup lookup) throws IllegalArgumentException {
+        Class<?> type = lookup.lookupClass();
+        if (!type.isInstance(this))
+            throw new IllegalArgumentException("Game is not an instance of " + type.getName());
+
+        List<GameEventSubscription> list = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            GameEventHandler annotation = method.getAnnotation(GameEventHandler.class);
+            if (annotation == null)
+                continue;
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0]))
+                throw new IllegalArgumentException("Event handler " + method + " must take a single event");
+            Class<? extends Event> eventClass = (Class<? extends Event>) parameters[0];
+
+            Consumer<Event> handler;
+            try {
+                MethodHandle target = lookup.unreflect(method);
+                boolean isStatic = Modifier.isStatic(method.getModifiers());
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        isStatic ? MethodType.methodType(Consumer.class) : MethodType.methodType(Consumer.class, type),
+                        MethodType.methodType(void.class, Object.class), target,
+                        MethodType.methodType(void.class, eventClass));
+                handler = (Consumer<Event>) (isStatic ? site.getTarget().invoke() : site.getTarget().invoke(this));
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Could not bind event handler " + method, e);
+            }
+
+            list.add(subscribe(eventClass, (GameEventKey<Event>) GameEventKey.defaultFor(eventClass), handler,
+                    annotation.ignoreCancelled()));
+        }
+        return list;
+    }
+
+    /**
+     * Cancels the given subscription
+     *
+     * @param subscription Subscription
+     * @return {@code true} if the subscription was active
+     */
+    boolean unsubscribe(GameEventSubscription subscription) {
+        GameEventRoute route = subscription.getRoute();
+        GameEventSubscription[] current = subscriptions.get(route);
+        if (current == null)
+            return false;
+
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                if (current.length == 1)
+                    subscriptions.remove(route);
+                else {
+                    GameEventSubscription[] updated = new GameEventSubscription[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    subscriptions.put(route, updated);
                 }
+                subscription.deactivate();
+                manager.getEventBus().release(route);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancels all of this game's subscriptions
+     */
+    public void unsubscribeAll() {
+        for (Map.Entry<GameEventRoute, GameEventSubscription[]> entry : subscriptions.entrySet()) {
+            for (GameEventSubscription subscription : entry.getValue()) {
+                subscription.deactivate();
+                manager.getEventBus().release(entry.getKey());
             }
         }
+        subscriptions.clear();
+    }
+
+    /**
+     * Passes the given event to this game's subscriptions to the given route
+     *
+     * @param route Route
+     * @param event Event
+     */
+    void dispatch(GameEventRoute route, Event event) {
+        GameEventSubscription[] current = subscriptions.get(route);
+        if (current == null)
+            return;
+        for (GameEventSubscription subscription : current) {
+            if (subscription.isActive())
+                subscription.handle(event);
+        }
+    }
+
+    /**
+     * Enables checkpoints for this game, so that its players, scoreboard lines, regions and the state written
+     * by {@link #writeCheckpoint(DataOutput)} are periodically saved and can be restored after a restart
+     * <p>
+     * This is usually called from the constructor. Checkpoints are only saved while
+     * {@link MiniGameManager#enableCheckpoints(File, long) enabled} on the manager, and whether the checkpoint
+     * of this game is kept when it is closed depends on {@link #close(boolean)}
+     *
+     * @param type Checkpoint type, which must be {@link MiniGameManager#registerCheckpointType(String, Function)
+     *             registered} with a factory that creates an empty game of this type
+     * @throws IllegalArgumentException If the type is not registered
+     */
+    protected void enableCheckpoints(String type) throws IllegalArgumentException {
+        if (!manager.getCheckpointer().isRegistered(type))
+            throw new IllegalArgumentException("Checkpoint type " + type + " is not registered");
+        setCheckpoint(type, checkpointId != null ? checkpointId : UUID.randomUUID());
+    }
+
+    /**
+     * Sets the checkpoint type and id of this game
+     *
+     * @param type Checkpoint type
+     * @param id Checkpoint id
+     */
+    void setCheckpoint(String type, UUID id) {
+        this.checkpointType = type;
+        this.checkpointId = id;
+        manager.getCheckpointer().add(this);
+    }
+
+    /**
+     * Checks if checkpoints are enabled for this game
+     *
+     * @return {@code true} if this game is checkpointed
+     */
+    public boolean isCheckpointed() {
+        return checkpointType != null;
+    }
+
+    /**
+     * Gets the checkpoint type of this game
+     *
+     * @return Possibly null checkpoint type
+     */
+    public String getCheckpointType() {
+        return checkpointType;
+    }
+
+    /**
+     * Gets the id that identifies the checkpoint of this game, which is kept when this game is restored
+     *
+     * @return Possibly null checkpoint id
+     */
+    public UUID getCheckpointId() {
+        return checkpointId;
+    }
+
+    /**
+     * Writes the custom state of this game to a checkpoint
+     * <p>
+     * This is called on the main thread, and the written bytes are saved to disk asynchronously
+     *
+     * @param out Output
+     * @throws IOException If the state could not be written
+     */
+    protected void writeCheckpoint(DataOutput out) throws IOException {
+    }
+
+    /**
+     * Reads the custom state of this game from a checkpoint after a restart
+     * <p>
+     * This is called after the players, scoreboard lines and regions of this game have been restored, so it
+     * can also be used to resume the match or resolve it cleanly
+     *
+     * @param in Input
+     * @throws IOException If the state could not be read
+     */
+    protected void readCheckpoint(DataInput in) throws IOException {
     }
 
     /**
      * Removes all players from this game and unregisters it
+     * <p>
+     * If checkpoints are enabled for this game, its checkpoint is deleted, unless the plugin of the manager
+     * is being disabled, in which case it is kept so that this game is restored after the restart
      */
     public void close() {
-        cancel();
-        setInvisibility(false);
+        close(manager.getPlugin().isEnabled());
+    }
+
+    /**
+     * Removes all players from this game and unregisters it
+     *
+     * @param discardCheckpoint {@code true} if the checkpoint of this game should be deleted, or {@code false}
+     *                          if a final checkpoint should be saved and kept so that this game is restored
+     *                          after a restart
+     */
+    public void close(boolean discardCheckpoint) {
+        if (checkpointType != null)
+            manager.getCheckpointer().remove(this, discardCheckpoint);
+        manager.unregisterGame(this);
+        unsubscribeAll();
+        visibility.reset();
         for (UUID player : new HashSet<>(players)) {
             getScoreboard().remove(player);
             remove(player);
@@ -158,7 +728,9 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
     }
 
     /**
-     * This will be called every tick
+     * This will be called every {@link #getTickInterval() tick interval} while this game is not paused
+     * <p>
+     * Games that do not override this method are never ticked
      */
     @Override
     public void run() {
@@ -192,6 +764,44 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
 
     }
 
+    /**
+     * This will be called when a player in this game moves to a different block
+     *
+     * @param event PlayerMoveEvent
+     */
+    public void onPlayerMoveBlock(PlayerMoveEvent event) {
+
+    }
+
+    /**
+     * This will be called when a player in this game moves to a different chunk
+     *
+     * @param event PlayerMoveEvent
+     */
+    public void onPlayerMoveChunk(PlayerMoveEvent event) {
+
+    }
+
+    /**
+     * This will be called when a player in this game moves into one of this game's regions
+     *
+     * @param event PlayerMoveEvent
+     * @param region Region that was entered
+     */
+    public void onPlayerEnterRegion(PlayerMoveEvent event, BlockRegion region) {
+
+    }
+
+    /**
+     * This will be called when a player in this game moves out of one of this game's regions
+     *
+     * @param event PlayerMoveEvent
+     * @param region Region that was exited
+     */
+    public void onPlayerExitRegion(PlayerMoveEvent event, BlockRegion region) {
+
+    }
+
     /**
      * This will be called when a player in this game drops an item
      *
@@ -310,7 +920,26 @@ public abstract class Game extends BukkitRunnable implements AutoCloseable {
     }
 
     /**
-     * This will be called when an entity changes a block
+     * This will be called when a player who is not in this game places a block in this game's arena
+     *
+     * @param event BlockPlaceEvent
+     */
+    public void onOutsiderBlockPlace(BlockPlaceEvent event) {
+
+    }
+
+    /**
+     * This will be called when a player who is not in this game breaks a block in this game's arena
+     *
+     * @param event BlockBreakEvent
+     */
+    public void onOutsiderBlockBreak(BlockBreakEvent event) {
+
+    }
+
+    /**
+     * This will be called when an entity changes a block in this game's arena, or anywhere if this game
+     * has no regions
      *
      * @param event EntityChangeBlockEvent
      */
@@ -0,0 +1,145 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.*;
+import org.bukkit.event.player.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents an event callback that games can receive
+ * <p>
+ * The listener for a callback is only registered while at least one game needs it
+ */
+public enum GameCallback {
+
+    PLAYER_MOVE(PlayerMoveEvent.class,
+            (manager, event) -> manager.onPlayerMove((PlayerMoveEvent) event),
+            "onPlayerMove", "onPlayerMoveBlock", "onPlayerMoveChunk", "onPlayerEnterRegion", "onPlayerExitRegion"),
+    PLAYER_DROP_ITEM(PlayerDropItemEvent.class,
+            (manager, event) -> manager.onPlayerDropItem((PlayerDropItemEvent) event),
+            "onPlayerDropItem"),
+    PLAYER_GAME_MODE_CHANGE(PlayerGameModeChangeEvent.class,
+            (manager, event) -> manager.onPlayerGameModeChange((PlayerGameModeChangeEvent) event),
+            "onPlayerGameModeChange"),
+    PLAYER_TOGGLE_FLIGHT(PlayerToggleFlightEvent.class,
+            (manager, event) -> manager.onPlayerToggleFlight((PlayerToggleFlightEvent) event),
+            "onPlayerToggleFlight"),
+    PLAYER_FOOD_LEVEL_CHANGE(FoodLevelChangeEvent.class,
+            (manager, event) -> manager.onPlayerFoodLevelChange((FoodLevelChangeEvent) event),
+            "onPlayerFoodLevelChange"),
+    PLAYER_INTERACT(PlayerInteractEvent.class,
+            (manager, event) -> manager.onPlayerInteract((PlayerInteractEvent) event),
+            "onPlayerInteract"),
+    PLAYER_INTERACT_ENTITY(PlayerInteractEntityEvent.class,
+            (manager, event) -> manager.onPlayerInteractEntity((PlayerInteractEntityEvent) event),
+            "onPlayerInteractEntity"),
+    PLAYER_ARMOR_STAND_MANIPULATE(PlayerArmorStandManipulateEvent.class,
+            (manager, event) -> manager.onPlayerArmorStandManipulate((PlayerArmorStandManipulateEvent) event),
+            "onPlayerArmorStandManipulate"),
+    PLAYER_SHOOT_BOW(EntityShootBowEvent.class,
+            (manager, event) -> manager.onEntityShootBow((EntityShootBowEvent) event),
+            "onPlayerShootBow"),
+    PROJECTILE_HIT(ProjectileHitEvent.class,
+            (manager, event) -> manager.onProjectileHit((ProjectileHitEvent) event),
+            "onProjectileHit"),
+    PLAYER_DAMAGE(EntityDamageEvent.class,
+            (manager, event) -> manager.onEntityDamage((EntityDamageEvent) event),
+            "onPlayerDamage"),
+    PLAYER_DAMAGE_BY_ENTITY(EntityDamageByEntityEvent.class,
+            (manager, event) -> manager.onEntityDamageByEntity((EntityDamageByEntityEvent) event),
+            "onPlayerDamageByEntity"),
+    BLOCK_PLACE(BlockPlaceEvent.class,
+            (manager, event) -> manager.onBlockPlace((BlockPlaceEvent) event),
+            "onBlockPlace", "onOutsiderBlockPlace"),
+    BLOCK_BREAK(BlockBreakEvent.class,
+            (manager, event) -> manager.onBlockBreak((BlockBreakEvent) event),
+            "onBlockBreak", "onOutsiderBlockBreak"),
+    ENTITY_CHANGE_BLOCK(EntityChangeBlockEvent.class,
+            (manager, event) -> manager.onEntityChangeBlock((EntityChangeBlockEvent) event),
+            "onEntityChangeBlock");
+
+    private static final ClassValue<Set<GameCallback>> CACHE = new ClassValue<Set<GameCallback>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Set<GameCallback> computeValue(Class<?> type) { // weakly keyed, so game plugins can unload
+            return Collections.unmodifiableSet(detect((Class<? extends Game>) type));
+        }
+    };
+
+    private final Class<? extends Event> eventClass;
+    private final BiConsumer<MiniGameManager, Event> dispatcher;
+    private final Set<String> methods;
+
+    GameCallback(Class<? extends Event> eventClass, BiConsumer<MiniGameManager, Event> dispatcher, String... methods) {
+        this.eventClass = eventClass;
+        this.dispatcher = dispatcher;
+        this.methods = new HashSet<>(Arrays.asList(methods));
+    }
+
+    /**
+     * Gets the class of the event that this callback listens to
+     *
+     * @return Event class
+     */
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Passes the given event to the game it belongs to
+     *
+     * @param manager Mini-game manager
+     * @param event Event
+     */
+    void dispatch(MiniGameManager manager, Event event) {
+        if (eventClass.isInstance(event)) // subclasses can share their parent's handler list
+            dispatcher.accept(manager, event);
+    }
+
+    /**
+     * Gets the callbacks needed by the given game class
+     * <p>
+     * If the class is annotated with {@link GameCallbacks} the declared callbacks are used, otherwise the
+     * callbacks are detected from the {@link Game} methods that the class overrides
+     *
+     * @param type Game class
+     * @return Unmodifiable set of callbacks
+     */
+    public static Set<GameCallback> of(Class<? extends Game> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * Detects the callbacks needed by the given game class
+     *
+     * @param type Game class
+     * @return Set of callbacks
+     */
+    private static EnumSet<GameCallback> detect(Class<? extends Game> type) {
+        EnumSet<GameCallback> callbacks = EnumSet.noneOf(GameCallback.class);
+
+        GameCallbacks declaration = type.getAnnotation(GameCallbacks.class);
+        if (declaration != null) {
+            callbacks.addAll(Arrays.asList(declaration.value()));
+            return callbacks;
+        }
+
+        for (Class<?> c = type; c != null && c != Game.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.isSynthetic())
+                    continue;
+                for (GameCallback callback : values()) {
+                    if (callback.methods.contains(method.getName()))
+                        callbacks.add(callback);
+                }
+            }
+        }
+        return callbacks;
+    }
+
+}
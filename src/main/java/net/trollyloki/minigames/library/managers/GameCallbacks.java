@@ -0,0 +1,22 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.lang.annotation.*;
+
+/**
+ * Explicitly declares which {@link GameCallback callbacks} a game needs, instead of detecting them from
+ * the methods that the game overrides
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GameCallbacks {
+
+    /**
+     * Gets the callbacks that the annotated game needs
+     *
+     * @return Callbacks
+     */
+    GameCallback[] value();
+
+}
@@ -0,0 +1,454 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import net.trollyloki.minigames.library.utils.GameScoreboard;
+import net.trollyloki.minigames.library.utils.PlayerScoreboard;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Periodically saves checkpoints of games so that they can be restored after a restart
+ * <p>
+ * Games are encoded into a compact binary format on the main thread, since their state is not thread-safe,
+ * and the encoded checkpoints are written to disk on a background thread. Each game has its own file, which
+ * is replaced atomically so that a crash while writing leaves the previous checkpoint intact
+ */
+class GameCheckpointer {
+
+    private static final int MAGIC = 0x4D474743, VERSION = 1;
+    private static final String EXTENSION = ".checkpoint";
+
+    private final MiniGameManager manager;
+    private final HashMap<String, Function<MiniGameManager, ? extends Game>> types;
+    private final LinkedHashSet<Game> games;
+    private final ByteArrayOutputStream bytes, custom;
+    private Path directory = null;
+    private ExecutorService writer = null;
+    private long interval;
+    private int cycle = 0;
+
+    /**
+     * Constructs a new game checkpointer
+     *
+     * @param manager Mini-game manager
+     */
+    GameCheckpointer(MiniGameManager manager) {
+        this.manager = manager;
+        this.types = new HashMap<>();
+        this.games = new LinkedHashSet<>();
+        this.bytes = new ByteArrayOutputStream();
+        this.custom = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Registers a factory that creates empty games of the given checkpoint type
+     *
+     * @param type Checkpoint type
+     * @param factory Game factory
+     */
+    void registerType(String type, Function<MiniGameManager, ? extends Game> factory) {
+        types.put(type, factory);
+    }
+
+    /**
+     * Checks if a factory is registered for the given checkpoint type
+     *
+     * @param type Checkpoint type
+     * @return {@code true} if the type is registered
+     */
+    boolean isRegistered(String type) {
+        return types.containsKey(type);
+    }
+
+    /**
+     * Checks if checkpoints are being saved
+     *
+     * @return {@code true} if checkpoints are enabled
+     */
+    boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Adds the given game to the games that are checkpointed
+     *
+     * @param game Game
+     */
+    void add(Game game) {
+        games.add(game);
+    }
+
+    /**
+     * Removes the given game from the games that are checkpointed
+     *
+     * @param game Game
+     * @param discard {@code true} to delete its last checkpoint, or {@code false} to save a final checkpoint
+     */
+    void remove(Game game, boolean discard) {
+        if (!discard)
+            checkpoint(game);
+        if (!games.remove(game) || !discard || writer == null)
+            return;
+        Path file = directory.resolve(game.getCheckpointId() + EXTENSION);
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                manager.getPlugin().getLogger().log(Level.WARNING, "Failed to delete game checkpoint " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Starts saving checkpoints of all checkpointed games to the given directory every interval
+     *
+     * @param directory Directory
+     * @param interval Interval in ticks
+     * @throws IOException If the directory could not be created
+     */
+    void enable(Path directory, long interval) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.interval = interval;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "MiniGameLibrary Game Checkpoints");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int current = ++cycle;
+        manager.schedule(interval, () -> cadence(current));
+    }
+
+    private void cadence(int current) {
+        if (current != cycle) // checkpoints were disabled or enabled again since this was scheduled
+            return;
+        checkpointAll();
+        manager.schedule(interval, () -> cadence(current));
+    }
+
+    /**
+     * Saves a final checkpoint of all checkpointed games and waits for them to be written
+     */
+    void disable() {
+        if (writer == null)
+            return;
+        checkpointAll();
+        cycle++;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS))
+                manager.getPlugin().getLogger().warning("Timed out while writing game checkpoints");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        directory = null;
+    }
+
+    /**
+     * Saves a checkpoint of every checkpointed game
+     */
+    void checkpointAll() {
+        for (Game game : games)
+            checkpoint(game);
+    }
+
+    /**
+     * Encodes a checkpoint of the given game and queues it to be written
+     *
+     * @param game Game
+     * @return {@code true} if the checkpoint was queued
+     */
+    boolean checkpoint(Game game) {
+        if (writer == null || !games.contains(game))
+            return false;
+
+        byte[] data;
+        try {
+            data = encode(game);
+        } catch (IOException | RuntimeException e) {
+            manager.getPlugin().getLogger().log(Level.SEVERE, "Failed to save checkpoint of game " + game, e);
+            return false;
+        }
+
+        Path file = directory.resolve(game.getCheckpointId() + EXTENSION);
+        writer.execute(() -> {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.write(temp, data);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                manager.getPlugin().getLogger().log(Level.SEVERE, "Failed to write game checkpoint " + file, e);
+            }
+        });
+        return true;
+    }
+
+    private byte[] encode(Game game) throws IOException {
+        bytes.reset();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(game.getCheckpointType());
+        out.writeInt(game.getTickInterval());
+        out.writeBoolean(game.isPaused());
+
+        GameScoreboard scoreboard = game.getScoreboard();
+        ArrayList<UUID> players = new ArrayList<>(game.getPlayers());
+        out.writeInt(players.size());
+        for (UUID player : players) {
+            out.writeLong(player.getMostSignificantBits());
+            out.writeLong(player.getLeastSignificantBits());
+            String name = scoreboard.getName(player);
+            out.writeBoolean(name != null);
+            if (name != null)
+                out.writeUTF(name);
+            PlayerScoreboard board = scoreboard.getPlayerScoreboard(player);
+            out.writeBoolean(board != null);
+            if (board != null) {
+                out.writeUTF(board.getTitle());
+                List<String> lines = board.getLines();
+                out.writeInt(lines.size());
+                for (String line : lines)
+                    out.writeUTF(line);
+            }
+        }
+
+        List<BlockRegion> regions = game.getRegions();
+        out.writeInt(regions.size());
+        for (BlockRegion region : regions) {
+            out.writeLong(region.getWorld().getMostSignificantBits());
+            out.writeLong(region.getWorld().getLeastSignificantBits());
+            out.writeInt(region.getMinX());
+            out.writeInt(region.getMinY());
+            out.writeInt(region.getMinZ());
+            out.writeInt(region.getMaxX());
+            out.writeInt(region.getMaxY());
+            out.writeInt(region.getMaxZ());
+        }
+
+        custom.reset(); // length prefixed so that a game that fails to read its state cannot corrupt the rest
+        game.writeCheckpoint(new DataOutputStream(custom));
+        out.writeInt(custom.size());
+        custom.writeTo(out);
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores every game that has a checkpoint in the checkpoint directory
+     * <p>
+     * Checkpoints of types that have no registered factory are left in place and skipped, and checkpoints that
+     * are corrupt are renamed with a {@code .corrupt} extension
+     *
+     * @return List of restored games
+     * @throws IOException If the checkpoint directory could not be listed
+     */
+    List<Game> restore() throws IOException {
+        ArrayList<Game> restored = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    Game game = restore(file);
+                    if (game != null)
+                        restored.add(game);
+                } catch (IOException | RuntimeException e) {
+                    manager.getPlugin().getLogger().log(Level.SEVERE, "Failed to restore game checkpoint " + file, e);
+                }
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Restores the game saved in the given checkpoint
+     * <p>
+     * The whole checkpoint is decoded before the game is created, so a corrupt or truncated checkpoint never
+     * leaves a partially restored game behind. Checkpoints that cannot be restored are kept aside, so that
+     * they are not retried or overwritten
+     *
+     * @param file Checkpoint file
+     * @return Restored game, or null if no factory is registered for its type
+     * @throws IOException If the checkpoint could not be read or is corrupt
+     */
+    private Game restore(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        Checkpoint checkpoint;
+        try {
+            UUID id = UUID.fromString(fileName.substring(0, fileName.length() - EXTENSION.length()));
+            checkpoint = decode(id, Files.readAllBytes(file));
+        } catch (IOException | RuntimeException e) {
+            quarantine(file);
+            throw e;
+        }
+
+        Function<MiniGameManager, ? extends Game> factory = types.get(checkpoint.type);
+        if (factory == null) {
+            manager.getPlugin().getLogger().warning("No game type " + checkpoint.type + " is registered to restore " + file);
+            return null;
+        }
+
+        Game game = factory.apply(manager);
+        try {
+            build(game, checkpoint);
+        } catch (IOException | RuntimeException e) {
+            quarantine(file);
+            game.close(true);
+            throw e;
+        }
+        return game;
+    }
+
+    private Checkpoint decode(UUID id, byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            throw new IOException("Unrecognized game checkpoint");
+
+        String type = in.readUTF();
+        int tickInterval = in.readInt();
+        if (tickInterval < 1)
+            throw new IOException("Corrupt game checkpoint");
+        boolean paused = in.readBoolean();
+
+        int playerCount = readCount(in, 18);
+        ArrayList<PlayerState> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            UUID player = new UUID(in.readLong(), in.readLong());
+            String name = in.readBoolean() ? in.readUTF() : null;
+            String title = null;
+            ArrayList<String> lines = null;
+            if (in.readBoolean()) {
+                title = in.readUTF();
+                int lineCount = readCount(in, 2);
+                lines = new ArrayList<>(lineCount);
+                for (int j = 0; j < lineCount; j++)
+                    lines.add(in.readUTF());
+            }
+            players.add(new PlayerState(player, name, title, lines));
+        }
+
+        int regionCount = readCount(in, 40);
+        ArrayList<BlockRegion> regions = new ArrayList<>(regionCount);
+        for (int i = 0; i < regionCount; i++) {
+            regions.add(new BlockRegion(new UUID(in.readLong(), in.readLong()),
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+        }
+
+        byte[] state = new byte[readCount(in, 1)];
+        in.readFully(state);
+        if (in.available() > 0)
+            throw new IOException("Corrupt game checkpoint");
+        return new Checkpoint(type, id, tickInterval, paused, players, regions, state);
+    }
+
+    /**
+     * Reads the amount of elements that follow, checking that there are enough bytes left for them
+     *
+     * @param in Input
+     * @param minSize Minimum size of each element in bytes
+     * @return Amount of elements
+     * @throws IOException If the amount is negative or there are not enough bytes left
+     */
+    private static int readCount(DataInputStream in, int minSize) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available() / minSize)
+            throw new IOException("Corrupt game checkpoint");
+        return count;
+    }
+
+    private void build(Game game, Checkpoint checkpoint) throws IOException {
+        game.setCheckpoint(checkpoint.type, checkpoint.id);
+        game.setTickInterval(checkpoint.tickInterval);
+        if (checkpoint.paused)
+            game.pause();
+
+        GameScoreboard scoreboard = game.getScoreboard();
+        for (PlayerState player : checkpoint.players) {
+            try {
+                game.add(player.uuid);
+            } catch (IllegalStateException e) {
+                manager.getPlugin().getLogger().warning("Could not restore player " + player.uuid + " to game "
+                        + game + " since they are already in another game");
+            }
+            if (player.name != null)
+                scoreboard.add(player.uuid, player.name);
+            if (player.title != null) {
+                scoreboard.setTitle(player.uuid, player.title);
+                scoreboard.setLines(player.uuid, player.lines);
+            }
+        }
+
+        for (BlockRegion region : checkpoint.regions)
+            game.addRegion(region);
+
+        game.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint.state)));
+    }
+
+    /**
+     * Renames the given checkpoint so that it is no longer restored or overwritten, keeping it for inspection
+     *
+     * @param file Checkpoint file
+     */
+    private void quarantine(Path file) {
+        Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt");
+        try {
+            Files.move(file, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            manager.getPlugin().getLogger().warning("Kept unrestorable game checkpoint as " + corrupt);
+        } catch (IOException e) {
+            manager.getPlugin().getLogger().log(Level.WARNING, "Failed to move aside game checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Fully decoded checkpoint of a game
+     */
+    private static final class Checkpoint {
+
+        private final String type;
+        private final UUID id;
+        private final int tickInterval;
+        private final boolean paused;
+        private final List<PlayerState> players;
+        private final List<BlockRegion> regions;
+        private final byte[] state;
+
+        private Checkpoint(String type, UUID id, int tickInterval, boolean paused, List<PlayerState> players,
+                           List<BlockRegion> regions, byte[] state) {
+            this.type = type;
+            this.id = id;
+            this.tickInterval = tickInterval;
+            this.paused = paused;
+            this.players = players;
+            this.regions = regions;
+            this.state = state;
+        }
+
+    }
+
+    /**
+     * Decoded checkpoint of a single player in a game
+     */
+    private static final class PlayerState {
+
+        private final UUID uuid;
+        private final String name, title;
+        private final List<String> lines;
+
+        private PlayerState(UUID uuid, String name, String title, List<String> lines) {
+            this.uuid = uuid;
+            this.name = name;
+            this.title = title;
+            this.lines = lines;
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+
+import java.util.*;
+
+/**
+ * Keeps one registered listener for each class of event and key that games are subscribed to
+ */
+class GameEventBus {
+
+    private final MiniGameManager manager;
+    private final Map<Class<? extends Event>, Map<GameEventKey<?>, GameEventRoute>> routes;
+
+    /**
+     * Constructs a new game event bus
+     *
+     * @param manager Mini-game manager
+     */
+    GameEventBus(MiniGameManager manager) {
+        this.manager = manager;
+        this.routes = new HashMap<>();
+    }
+
+    /**
+     * Gets the route for the given event class and key, registering it if this is its first subscription
+     *
+     * @param eventClass Event class
+     * @param key Key
+     * @return Route
+     */
+    @SuppressWarnings("unchecked")
+    GameEventRoute retain(Class<? extends Event> eventClass, GameEventKey<?> key) {
+        Map<GameEventKey<?>, GameEventRoute> byKey = routes.get(eventClass);
+        GameEventRoute route = byKey != null ? byKey.get(key) : null;
+        if (route == null) {
+            route = new GameEventRoute(manager, eventClass, (GameEventKey<Event>) key);
+            manager.getPlugin().getServer().getPluginManager() // only remembered once it is actually registered
+                    .registerEvent(eventClass, route, EventPriority.NORMAL, route, manager.getPlugin());
+            routes.computeIfAbsent(eventClass, c -> new HashMap<>()).put(key, route);
+        }
+        route.retain();
+        return route;
+    }
+
+    /**
+     * Releases a subscription to the given route, unregistering it if it has no subscriptions left
+     *
+     * @param route Route
+     */
+    void release(GameEventRoute route) {
+        if (route.release() > 0)
+            return;
+        Map<GameEventKey<?>, GameEventRoute> byKey = routes.get(route.getEventClass());
+        if (byKey != null && byKey.remove(route.getKey()) != null) {
+            HandlerList.unregisterAll(route);
+            if (byKey.isEmpty())
+                routes.remove(route.getEventClass());
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a method of a game as a handler for the event it takes as its only parameter
+ *
+ * @see Game#subscribeAll(java.lang.invoke.MethodHandles.Lookup)
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface GameEventHandler {
+
+    /**
+     * Checks if cancelled events should be skipped
+     *
+     * @return {@code true} if cancelled events should not be passed to the handler
+     */
+    boolean ignoreCancelled() default false;
+
+}
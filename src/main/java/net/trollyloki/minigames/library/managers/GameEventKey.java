@@ -0,0 +1,66 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+
+import java.util.UUID;
+
+/**
+ * Extracts the player or entity that an event belongs to, which is used to find the game to pass it to
+ *
+ * @param <E> Type of event
+ */
+@FunctionalInterface
+public interface GameEventKey<E extends Event> {
+
+    /**
+     * Key for events that belong to {@link PlayerEvent#getPlayer()}
+     */
+    GameEventKey<PlayerEvent> PLAYER = event -> event.getPlayer().getUniqueId();
+
+    /**
+     * Key for events that belong to {@link EntityEvent#getEntity()}
+     */
+    GameEventKey<EntityEvent> ENTITY = event -> event.getEntity().getUniqueId();
+
+    /**
+     * Key for block place events that belong to {@link BlockPlaceEvent#getPlayer()}
+     */
+    GameEventKey<BlockPlaceEvent> BLOCK_PLACER = event -> event.getPlayer().getUniqueId();
+
+    /**
+     * Key for block break events that belong to {@link BlockBreakEvent#getPlayer()}
+     */
+    GameEventKey<BlockBreakEvent> BLOCK_BREAKER = event -> event.getPlayer().getUniqueId();
+
+    /**
+     * Gets the UUID of the player or entity that the given event belongs to
+     *
+     * @param event Event
+     * @return Possibly null UUID
+     */
+    UUID getKey(E event);
+
+    /**
+     * Gets the key used for the given event class when none is given explicitly
+     *
+     * @param eventClass Event class
+     * @return Key
+     * @throws IllegalArgumentException If there is no default key for the given event class
+     */
+    static GameEventKey<?> defaultFor(Class<? extends Event> eventClass) throws IllegalArgumentException {
+        if (PlayerEvent.class.isAssignableFrom(eventClass))
+            return PLAYER;
+        else if (EntityEvent.class.isAssignableFrom(eventClass))
+            return ENTITY;
+        else if (BlockPlaceEvent.class.isAssignableFrom(eventClass))
+            return BLOCK_PLACER;
+        else if (BlockBreakEvent.class.isAssignableFrom(eventClass))
+            return BLOCK_BREAKER;
+        throw new IllegalArgumentException("No default key for " + eventClass.getName());
+    }
+
+}
@@ -0,0 +1,80 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import java.util.UUID;
+
+/**
+ * Listener that passes one class of event to the game of the player or entity the event belongs to
+ */
+class GameEventRoute implements Listener, EventExecutor {
+
+    private final MiniGameManager manager;
+    private final Class<? extends Event> eventClass;
+    private final GameEventKey<Event> key;
+    private int subscriptions = 0;
+
+    /**
+     * Constructs a new game event route
+     *
+     * @param manager Mini-game manager
+     * @param eventClass Event class
+     * @param key Key
+     */
+    GameEventRoute(MiniGameManager manager, Class<? extends Event> eventClass, GameEventKey<Event> key) {
+        this.manager = manager;
+        this.eventClass = eventClass;
+        this.key = key;
+    }
+
+    /**
+     * Gets the class of event that this route passes
+     *
+     * @return Event class
+     */
+    Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Gets the key used to find the game of an event
+     *
+     * @return Key
+     */
+    GameEventKey<Event> getKey() {
+        return key;
+    }
+
+    /**
+     * Increments the number of subscriptions to this route
+     *
+     * @return New number of subscriptions
+     */
+    int retain() {
+        return ++subscriptions;
+    }
+
+    /**
+     * Decrements the number of subscriptions to this route
+     *
+     * @return New number of subscriptions
+     */
+    int release() {
+        return --subscriptions;
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!eventClass.isInstance(event)) // subclasses can share their parent's handler list
+            return;
+        UUID uuid = key.getKey(event);
+        if (uuid == null)
+            return;
+        Game game = manager.getGame(uuid);
+        if (game != null)
+            game.dispatch(this, event);
+    }
+
+}
@@ -0,0 +1,97 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+
+import java.util.function.Consumer;
+
+/**
+ * Represents a game's subscription to an event
+ */
+public class GameEventSubscription {
+
+    private final Game game;
+    private final GameEventRoute route;
+    private final Consumer<Event> handler;
+    private final boolean ignoreCancelled;
+    private boolean active = true;
+
+    /**
+     * Constructs a new game event subscription
+     *
+     * @param game Game
+     * @param route Route
+     * @param handler Handler
+     * @param ignoreCancelled {@code true} if cancelled events should be skipped
+     */
+    GameEventSubscription(Game game, GameEventRoute route, Consumer<Event> handler, boolean ignoreCancelled) {
+        this.game = game;
+        this.route = route;
+        this.handler = handler;
+        this.ignoreCancelled = ignoreCancelled;
+    }
+
+    /**
+     * Gets the game that this subscription belongs to
+     *
+     * @return Game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the class of event that this subscription receives
+     *
+     * @return Event class
+     */
+    public Class<? extends Event> getEventClass() {
+        return route.getEventClass();
+    }
+
+    /**
+     * Gets the route that this subscription receives events from
+     *
+     * @return Route
+     */
+    GameEventRoute getRoute() {
+        return route;
+    }
+
+    /**
+     * Checks if this subscription is still receiving events
+     *
+     * @return {@code true} if this subscription has not been cancelled
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Cancels this subscription
+     *
+     * @return {@code true} if this subscription was active
+     */
+    public boolean unsubscribe() {
+        return game.unsubscribe(this);
+    }
+
+    /**
+     * Marks this subscription as no longer active
+     */
+    void deactivate() {
+        active = false;
+    }
+
+    /**
+     * Passes the given event to the handler
+     *
+     * @param event Event
+     */
+    void handle(Event event) {
+        if (ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled())
+            return;
+        handler.accept(event);
+    }
+
+}
@@ -0,0 +1,241 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Single task that ticks all registered games in registration order
+ */
+class GameTicker extends BukkitRunnable {
+
+    private static final ClassValue<Boolean> OVERRIDES_RUN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) { // weakly keyed, so game plugins can unload
+            try {
+                return type.getMethod("run").getDeclaringClass() != Game.class;
+            } catch (NoSuchMethodException e) { // should not be possible since games are runnable
+                return true;
+            }
+        }
+    };
+
+    private final MiniGameManager manager;
+    private final ArrayList<Entry> entries;
+    private final HashMap<Game, Entry> lookup;
+    private final ArrayDeque<Runnable> afterTick;
+    private final ArrayDeque<Runnable> deferred;
+    private final TimingWheel wheel;
+    private boolean ticking = false, removed = false;
+    private long budget = 20_000_000L;
+    private long lastTickTime = 0;
+
+    /**
+     * Constructs a new game ticker
+     *
+     * @param manager Mini-game manager
+     */
+    GameTicker(MiniGameManager manager) {
+        this.manager = manager;
+        this.entries = new ArrayList<>();
+        this.lookup = new HashMap<>();
+        this.afterTick = new ArrayDeque<>();
+        this.deferred = new ArrayDeque<>();
+        this.wheel = new TimingWheel(9);
+    }
+
+    /**
+     * Gets the amount of ticks this ticker has run
+     *
+     * @return Current tick
+     */
+    long getCurrentTick() {
+        return wheel.getTick();
+    }
+
+    /**
+     * Schedules a task to be run after the given amount of ticks, once all games have been ticked
+     *
+     * @param delay Delay in ticks
+     * @param task Task
+     */
+    void schedule(long delay, Runnable task) {
+        wheel.schedule(delay, task);
+    }
+
+    /**
+     * Gets the amount of time that may be spent each tick before deferred tasks are postponed
+     *
+     * @return Budget in nanoseconds
+     */
+    long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the amount of time that may be spent each tick before deferred tasks are postponed
+     *
+     * @param budget Budget in nanoseconds
+     */
+    void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Gets the amount of time spent during the last tick
+     *
+     * @return Time in nanoseconds
+     */
+    long getLastTickTime() {
+        return lastTickTime;
+    }
+
+    /**
+     * Queues a task to be run once after all games have been ticked
+     *
+     * @param task Task
+     */
+    void runAfterTick(Runnable task) {
+        afterTick.add(task);
+    }
+
+    /**
+     * Queues a low priority task to be run once there is budget left in a tick
+     *
+     * @param task Task
+     */
+    void defer(Runnable task) {
+        deferred.add(task);
+    }
+
+    /**
+     * Adds the given game to this ticker, unless it does not override {@link Game#run()}
+     *
+     * @param game Game
+     * @return {@code true} if the game will be ticked
+     */
+    boolean add(Game game) {
+        if (lookup.containsKey(game) || !overridesRun(game.getClass()))
+            return false;
+        Entry entry = new Entry(game);
+        entries.add(entry);
+        lookup.put(game, entry);
+        return true;
+    }
+
+    /**
+     * Removes the given game from this ticker
+     *
+     * @param game Game
+     * @return {@code true} if the game was being ticked
+     */
+    boolean remove(Game game) {
+        Entry entry = lookup.remove(game);
+        if (entry == null)
+            return false;
+        if (ticking) { // removing while iterating, so compact after this tick
+            entry.removed = true;
+            removed = true;
+        } else
+            entries.remove(entry);
+        return true;
+    }
+
+    /**
+     * Checks if the given game class overrides {@link Game#run()}
+     *
+     * @param type Game class
+     * @return {@code true} if the run method is overridden
+     */
+    private static boolean overridesRun(Class<?> type) {
+        return OVERRIDES_RUN.get(type);
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        ticking = true;
+        try {
+            int size = entries.size(); // games added during this tick start next tick
+            for (int i = 0; i < size; i++) {
+                Entry entry = entries.get(i);
+                if (entry.removed || entry.game.isPaused())
+                    continue;
+                if (--entry.countdown > 0)
+                    continue;
+                entry.countdown = entry.game.getTickInterval();
+
+                long gameStart = System.nanoTime();
+                try {
+                    entry.game.run();
+                } catch (Throwable e) {
+                    manager.getPlugin().getLogger().log(Level.SEVERE, "Exception while ticking game " + entry.game, e);
+                }
+                entry.game.recordTickTime(System.nanoTime() - gameStart);
+            }
+        } finally {
+            ticking = false;
+            if (removed) {
+                entries.removeIf(entry -> entry.removed);
+                removed = false;
+            }
+        }
+
+        wheel.advance(e -> manager.getPlugin().getLogger().log(Level.SEVERE, "Exception while running scheduled task", e));
+        runAfterTick();
+        runDeferred(start);
+        lastTickTime = System.nanoTime() - start;
+    }
+
+    /**
+     * Runs all tasks queued to run after this tick, leaving tasks queued while this is running for the next
+     */
+    private void runAfterTick() {
+        int count = afterTick.size();
+        for (int i = 0; i < count; i++) {
+            Runnable task = afterTick.poll();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                manager.getPlugin().getLogger().log(Level.SEVERE, "Exception while running task " + task, e);
+            }
+        }
+    }
+
+    /**
+     * Runs deferred tasks until the budget for this tick is used up
+     * <p>
+     * At least one task is always run so that deferred work cannot be starved forever, and tasks
+     * deferred while this is running are left for the next tick
+     *
+     * @param start Time this tick started at
+     */
+    private void runDeferred(long start) {
+        int count = deferred.size();
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && System.nanoTime() - start >= budget)
+                break;
+
+            Runnable task = deferred.poll();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                manager.getPlugin().getLogger().log(Level.SEVERE, "Exception while running deferred task " + task, e);
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final Game game;
+        private int countdown = 1;
+        private boolean removed = false;
+
+        private Entry(Game game) {
+            this.game = game;
+        }
+
+    }
+
+}
@@ -0,0 +1,277 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * Controls which players in a game can see each other
+ * <p>
+ * Every player is in a visibility group, such as a team, spectators or eliminated players, and rules
+ * decide whether players in one group can see players in another. Players are only shown or hidden when
+ * their current visibility differs from what the rules require, so unchanged pairs never send packets
+ */
+public class GameVisibility {
+
+    /**
+     * Group that players are in until they are put in another one
+     */
+    public static final String DEFAULT_GROUP = "";
+
+    private final MiniGameManager manager;
+    private final Game game;
+    private final HashMap<UUID, String> groups;
+    private final HashMap<String, Set<UUID>> members;
+    private final HashMap<String, HashMap<String, Boolean>> rules;
+    private boolean defaultVisible = true;
+
+    /**
+     * Constructs a new game visibility
+     *
+     * @param manager Mini-game manager
+     * @param game Game
+     */
+    GameVisibility(MiniGameManager manager, Game game) {
+        this.manager = manager;
+        this.game = game;
+        this.groups = new HashMap<>();
+        this.members = new HashMap<>();
+        this.rules = new HashMap<>();
+    }
+
+    /**
+     * Gets the visibility group of the given player
+     *
+     * @param player Player
+     * @return Group
+     */
+    public String getGroup(UUID player) {
+        return groups.getOrDefault(player, DEFAULT_GROUP);
+    }
+
+    /**
+     * Moves the given player to a visibility group, updating only the pairs that involve them
+     *
+     * @param player Player
+     * @param group Group
+     */
+    public void setGroup(UUID player, String group) {
+        String old = groups.put(player, group);
+        if (old != null)
+            removeMember(old, player);
+        members.computeIfAbsent(group, g -> new HashSet<>()).add(player);
+
+        Player p = game.getOnlinePlayer(player);
+        if (p != null)
+            refresh(p);
+    }
+
+    /**
+     * Checks if players in one group can see players in another
+     *
+     * @param viewerGroup Group of the viewing players
+     * @param targetGroup Group of the viewed players
+     * @return {@code true} if the viewing players can see the viewed players
+     */
+    public boolean isVisible(String viewerGroup, String targetGroup) {
+        HashMap<String, Boolean> targets = rules.get(viewerGroup);
+        if (targets != null) {
+            Boolean value = targets.get(targetGroup);
+            if (value != null)
+                return value;
+        }
+        return defaultVisible;
+    }
+
+    /**
+     * Checks if one player should be able to see another
+     *
+     * @param viewer Viewing player
+     * @param target Viewed player
+     * @return {@code true} if the viewer can see the target
+     */
+    public boolean canSee(UUID viewer, UUID target) {
+        return isVisible(getGroup(viewer), getGroup(target));
+    }
+
+    /**
+     * Sets whether players in one group can see players in another, updating only the pairs in those groups
+     *
+     * @param viewerGroup Group of the viewing players
+     * @param targetGroup Group of the viewed players
+     * @param visible {@code true} if the viewing players should be able to see the viewed players
+     */
+    public void setVisible(String viewerGroup, String targetGroup, boolean visible) {
+        rules.computeIfAbsent(viewerGroup, g -> new HashMap<>()).put(targetGroup, visible);
+        apply(viewerGroup, targetGroup);
+    }
+
+    /**
+     * Removes the rule for whether players in one group can see players in another, so that the default is
+     * used instead
+     *
+     * @param viewerGroup Group of the viewing players
+     * @param targetGroup Group of the viewed players
+     */
+    public void unsetVisible(String viewerGroup, String targetGroup) {
+        HashMap<String, Boolean> targets = rules.get(viewerGroup);
+        if (targets == null || targets.remove(targetGroup) == null)
+            return;
+        if (targets.isEmpty())
+            rules.remove(viewerGroup);
+        apply(viewerGroup, targetGroup);
+    }
+
+    /**
+     * Checks if players can see each other when there is no rule for their groups
+     *
+     * @return {@code true} if players are visible by default
+     */
+    public boolean isDefaultVisible() {
+        return defaultVisible;
+    }
+
+    /**
+     * Sets whether players can see each other when there is no rule for their groups
+     *
+     * @param visible {@code true} if players should be visible by default
+     */
+    public void setDefaultVisible(boolean visible) {
+        if (defaultVisible == visible)
+            return;
+        this.defaultVisible = visible;
+        Set<Player> players = game.getOnlinePlayers();
+        for (Player viewer : players) {
+            for (Player target : players)
+                apply(viewer, target);
+        }
+    }
+
+    /**
+     * Applies the rules between the given player and every other online player in the game, which should
+     * be done whenever the player joins or rejoins
+     *
+     * @param player Player
+     */
+    public void refresh(Player player) {
+        for (Player other : game.getOnlinePlayers()) {
+            apply(player, other);
+            apply(other, player);
+        }
+    }
+
+    /**
+     * Shows the given player to and from every other online player in the game and forgets their group
+     *
+     * @param player Player
+     */
+    void remove(UUID player) {
+        String group = groups.remove(player);
+        if (group != null)
+            removeMember(group, player);
+
+        Player p = game.getOnlinePlayer(player);
+        if (p == null)
+            return;
+        for (Player other : game.getOnlinePlayers()) {
+            show(p, other);
+            show(other, p);
+        }
+    }
+
+    /**
+     * Shows all players in the game to each other and forgets all groups and rules
+     */
+    void reset() {
+        Set<Player> players = game.getOnlinePlayers();
+        for (Player viewer : players) {
+            for (Player target : players)
+                show(viewer, target);
+        }
+        groups.clear();
+        members.clear();
+        rules.clear();
+        defaultVisible = true;
+    }
+
+    /**
+     * Applies the rule between two groups to every online pair of their players
+     *
+     * @param viewerGroup Group of the viewing players
+     * @param targetGroup Group of the viewed players
+     */
+    private void apply(String viewerGroup, String targetGroup) {
+        Collection<Player> viewers = getOnlineMembers(viewerGroup);
+        Collection<Player> targets = viewerGroup.equals(targetGroup) ? viewers : getOnlineMembers(targetGroup);
+        for (Player viewer : viewers) {
+            for (Player target : targets)
+                apply(viewer, target);
+        }
+    }
+
+    /**
+     * Shows or hides one player to another if their visibility differs from the rules
+     *
+     * @param viewer Viewing player
+     * @param target Viewed player
+     */
+    private void apply(Player viewer, Player target) {
+        if (viewer == target)
+            return;
+        boolean visible = canSee(viewer.getUniqueId(), target.getUniqueId());
+        if (viewer.canSee(target) != visible) {
+            if (visible)
+                viewer.showPlayer(manager.getPlugin(), target);
+            else
+                viewer.hidePlayer(manager.getPlugin(), target);
+        }
+    }
+
+    private void show(Player viewer, Player target) {
+        if (viewer != target && !viewer.canSee(target))
+            viewer.showPlayer(manager.getPlugin(), target);
+    }
+
+    /**
+     * Gets the online players in the given group
+     *
+     * @param group Group
+     * @return Collection of players
+     */
+    private Collection<Player> getOnlineMembers(String group) {
+        if (group.equals(DEFAULT_GROUP)) { // players in the default group are not tracked
+            List<Player> list = new ArrayList<>();
+            for (Player player : game.getOnlinePlayers()) {
+                if (!groups.containsKey(player.getUniqueId()))
+                    list.add(player);
+            }
+            Set<UUID> explicit = members.get(DEFAULT_GROUP);
+            if (explicit != null) {
+                for (UUID uuid : explicit) {
+                    Player player = game.getOnlinePlayer(uuid);
+                    if (player != null)
+                        list.add(player);
+                }
+            }
+            return list;
+        }
+
+        Set<UUID> uuids = members.get(group);
+        if (uuids == null)
+            return Collections.emptyList();
+        List<Player> list = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            Player player = game.getOnlinePlayer(uuid);
+            if (player != null)
+                list.add(player);
+        }
+        return list;
+    }
+
+    private void removeMember(String group, UUID player) {
+        Set<UUID> set = members.get(group);
+        if (set != null && set.remove(player) && set.isEmpty())
+            members.remove(group);
+    }
+
+}
@@ -0,0 +1,88 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.util.*;
+
+/**
+ * Group of players that a {@link MatchmakingQueue} has formed into teams for a new game
+ */
+public class Match {
+
+    private final MatchmakingQueue queue;
+    private final List<List<UUID>> teams;
+    private final List<Party> parties;
+
+    /**
+     * Constructs a new match
+     *
+     * @param queue Queue the match was formed by
+     * @param teams Players in each team
+     * @param parties Parties in the match
+     */
+    Match(MatchmakingQueue queue, List<List<UUID>> teams, List<Party> parties) {
+        this.queue = queue;
+        this.teams = teams;
+        this.parties = parties;
+    }
+
+    /**
+     * Gets the queue this match was formed by
+     *
+     * @return Matchmaking queue
+     */
+    public MatchmakingQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Gets the players in each team of this match, where the members of a party are always in the same team
+     *
+     * @return Unmodifiable list of teams
+     */
+    public List<List<UUID>> getTeams() {
+        return teams;
+    }
+
+    /**
+     * Gets the parties that were queued together and are part of this match
+     *
+     * @return Unmodifiable list of parties
+     */
+    public List<Party> getParties() {
+        return parties;
+    }
+
+    /**
+     * Gets all the players in this match
+     *
+     * @return List of players
+     */
+    public List<UUID> getPlayers() {
+        ArrayList<UUID> players = new ArrayList<>();
+        for (List<UUID> team : teams)
+            players.addAll(team);
+        return players;
+    }
+
+    /**
+     * Adds all the players in this match to the given game
+     *
+     * @param game Game
+     * @return Amount of players added
+     */
+    public int addTo(Game game) {
+        int count = 0;
+        for (List<UUID> team : teams) {
+            for (UUID player : team) {
+                try {
+                    if (game.add(player))
+                        count++;
+                } catch (IllegalStateException e) { // player joined another game since the match was formed
+                    queue.getManager().getPlugin().getLogger()
+                            .warning("Matched player " + player + " is already in another game");
+                }
+            }
+        }
+        return count;
+    }
+
+}
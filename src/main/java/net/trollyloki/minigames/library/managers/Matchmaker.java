@@ -0,0 +1,175 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of matchmaking queues and periodically forms matches from them
+ */
+class Matchmaker {
+
+    private final MiniGameManager manager;
+    private final LinkedHashMap<String, MatchmakingQueue> queues;
+    private final HashMap<UUID, MatchmakingQueue.Unit> units;
+    private long interval = 20;
+    private int cycle = 0;
+
+    /**
+     * Constructs a new matchmaker
+     *
+     * @param manager Mini-game manager
+     */
+    Matchmaker(MiniGameManager manager) {
+        this.manager = manager;
+        this.queues = new LinkedHashMap<>();
+        this.units = new HashMap<>();
+    }
+
+    /**
+     * Gets the manager of this matchmaker
+     *
+     * @return Mini-game manager
+     */
+    MiniGameManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Creates a new queue, starting the matching cadence if it is the first one
+     *
+     * @param name Name
+     * @param minPlayers Minimum amount of players in a match
+     * @param maxPlayers Maximum amount of players in a match
+     * @param teamCount Amount of teams in a match
+     * @param handler Handler that starts a game for each match
+     * @return Matchmaking queue
+     * @throws IllegalArgumentException If a queue with the given name exists or the sizes are not possible
+     */
+    MatchmakingQueue createQueue(String name, int minPlayers, int maxPlayers, int teamCount,
+                                 Consumer<? super Match> handler) throws IllegalArgumentException {
+        if (queues.containsKey(name))
+            throw new IllegalArgumentException("Queue " + name + " already exists");
+        MatchmakingQueue queue = new MatchmakingQueue(this, name, minPlayers, maxPlayers, teamCount, handler);
+        queues.put(name, queue);
+        if (queues.size() == 1)
+            start();
+        return queue;
+    }
+
+    /**
+     * Gets the queue with the given name
+     *
+     * @param name Name
+     * @return Possibly null queue
+     */
+    MatchmakingQueue getQueue(String name) {
+        return queues.get(name);
+    }
+
+    /**
+     * Removes the queue with the given name along with everyone waiting in it
+     *
+     * @param name Name
+     * @return {@code true} if the queue existed
+     */
+    boolean removeQueue(String name) {
+        MatchmakingQueue queue = queues.remove(name);
+        if (queue == null)
+            return false;
+        units.values().removeIf(unit -> unit.getQueue() == queue);
+        if (queues.isEmpty())
+            cycle++; // stop the cadence
+        return true;
+    }
+
+    /**
+     * Gets the queue the given player is waiting in
+     *
+     * @param player Player
+     * @return Possibly null queue
+     */
+    MatchmakingQueue getQueue(UUID player) {
+        MatchmakingQueue.Unit unit = units.get(player);
+        return unit != null ? unit.getQueue() : null;
+    }
+
+    /**
+     * Records that the given players are waiting as the given unit
+     *
+     * @param unit Unit
+     * @param players Players in the unit
+     * @throws IllegalStateException If any of the players are already queued
+     */
+    void add(MatchmakingQueue.Unit unit, UUID[] players) throws IllegalStateException {
+        for (UUID player : players) {
+            if (units.containsKey(player))
+                throw new IllegalStateException("Player " + player + " is already queued");
+        }
+        for (UUID player : players)
+            units.put(player, unit);
+    }
+
+    /**
+     * Removes the unit that the given player was queued with
+     *
+     * @param player Player
+     * @return {@code true} if the player was queued
+     */
+    boolean dequeue(UUID player) {
+        MatchmakingQueue.Unit unit = units.get(player);
+        if (unit == null)
+            return false;
+        for (UUID member : unit.players())
+            units.remove(member);
+        unit.getQueue().removed(unit);
+        return true;
+    }
+
+    /**
+     * Checks if every player in the given unit is online and not in a game
+     *
+     * @param unit Unit
+     * @return {@code true} if the unit can be matched
+     */
+    boolean isAvailable(MatchmakingQueue.Unit unit) {
+        for (UUID player : unit.players()) {
+            if (manager.inGame(player) || manager.getOnlinePlayer(player) == null)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of ticks between matching rounds
+     *
+     * @return Interval in ticks
+     */
+    long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the amount of ticks between matching rounds
+     *
+     * @param interval Interval in ticks
+     */
+    void setInterval(long interval) {
+        this.interval = interval;
+        if (!queues.isEmpty())
+            start(); // restart so the new interval applies now
+    }
+
+    private void start() {
+        int current = ++cycle;
+        manager.schedule(interval, () -> cadence(current));
+    }
+
+    private void cadence(int current) {
+        if (current != cycle) // stopped or restarted since this was scheduled
+            return;
+        for (MatchmakingQueue queue : new ArrayList<>(queues.values()))
+            queue.match();
+        manager.schedule(interval, () -> cadence(current));
+    }
+
+}
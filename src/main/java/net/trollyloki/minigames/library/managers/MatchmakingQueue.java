@@ -0,0 +1,412 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Queue of parties and solo players waiting to be matched into games
+ * <p>
+ * Parties are queued as a single unit and are never split between teams. Units are kept in a bucket for each
+ * size in the order they were queued. Each match is started with the unit that has waited the longest, so
+ * solo players are not passed over by a stream of larger parties, and is then filled by placing the largest
+ * units that fit into the team with the most room, so forming a match only looks at the units that end up
+ * in it. If no match can be formed around the unit that has waited the longest, one is formed without it
+ */
+public class MatchmakingQueue {
+
+    /**
+     * Party or solo player that is matched as a whole
+     */
+    static class Unit {
+
+        private final MatchmakingQueue queue;
+        private final Party party;
+        private final UUID[] players;
+        private final long sequence;
+        private boolean removed = false, polled = false;
+
+        private Unit(MatchmakingQueue queue, Party party, UUID[] players, long sequence) {
+            this.queue = queue;
+            this.party = party;
+            this.players = players;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Gets the queue this unit is in
+         *
+         * @return Matchmaking queue
+         */
+        MatchmakingQueue getQueue() {
+            return queue;
+        }
+
+        /**
+         * Gets the players in this unit
+         *
+         * @return Array of players
+         */
+        UUID[] players() {
+            return players;
+        }
+
+    }
+
+    private final Matchmaker matchmaker;
+    private final String name;
+    private final int minPlayers, maxPlayers, teamCount, teamCapacity, minTeamSize;
+    private final Consumer<? super Match> handler;
+    private final ArrayList<ArrayDeque<Unit>> buckets;
+    private int size = 0, units = 0, removedUnits = 0;
+    private long nextSequence = 0;
+
+    /**
+     * Constructs a new matchmaking queue
+     *
+     * @param matchmaker Matchmaker
+     * @param name Name
+     * @param minPlayers Minimum amount of players in a match
+     * @param maxPlayers Maximum amount of players in a match
+     * @param teamCount Amount of teams in a match
+     * @param handler Handler that starts a game for each match
+     * @throws IllegalArgumentException If the sizes are not possible
+     */
+    MatchmakingQueue(Matchmaker matchmaker, String name, int minPlayers, int maxPlayers, int teamCount,
+                     Consumer<? super Match> handler) throws IllegalArgumentException {
+        if (teamCount < 1)
+            throw new IllegalArgumentException("Team count must be at least 1");
+        if (minPlayers < 1 || minPlayers > maxPlayers)
+            throw new IllegalArgumentException("Minimum players must be between 1 and the maximum players");
+        if (maxPlayers < teamCount)
+            throw new IllegalArgumentException("Maximum players must be at least the team count");
+        this.matchmaker = matchmaker;
+        this.name = name;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+        this.teamCount = teamCount;
+        this.teamCapacity = maxPlayers / teamCount;
+        this.minTeamSize = (minPlayers + teamCount - 1) / teamCount;
+        this.handler = handler;
+        this.buckets = new ArrayList<>(teamCapacity + 1);
+        for (int i = 0; i <= teamCapacity; i++)
+            buckets.add(new ArrayDeque<>());
+    }
+
+    /**
+     * Gets the manager of this queue
+     *
+     * @return Mini-game manager
+     */
+    MiniGameManager getManager() {
+        return matchmaker.getManager();
+    }
+
+    /**
+     * Gets the name of this queue
+     *
+     * @return Name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the minimum amount of players in a match
+     *
+     * @return Minimum players
+     */
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    /**
+     * Gets the maximum amount of players in a match
+     *
+     * @return Maximum players
+     */
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    /**
+     * Gets the amount of teams in a match
+     *
+     * @return Team count
+     */
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    /**
+     * Gets the maximum amount of players in a team, which is also the largest party that can be queued
+     *
+     * @return Team capacity
+     */
+    public int getTeamCapacity() {
+        return teamCapacity;
+    }
+
+    /**
+     * Gets the amount of players waiting in this queue
+     *
+     * @return Amount of players
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the online players in the given party to this queue as a single unit
+     *
+     * @param party Party
+     * @throws IllegalStateException If the party has no online players or one of them is already queued
+     * @throws IllegalArgumentException If the party has more online players than fit in a team
+     */
+    public void enqueue(Party party) throws IllegalStateException, IllegalArgumentException {
+        ArrayList<UUID> players = new ArrayList<>();
+        for (UUID player : party.getPlayers()) {
+            if (getManager().getOnlinePlayer(player) != null)
+                players.add(player);
+        }
+        if (players.isEmpty())
+            throw new IllegalStateException("Given party has no online players");
+        enqueue(party, players.toArray(new UUID[0]));
+    }
+
+    /**
+     * Adds the given player to this queue on their own
+     *
+     * @param player Player
+     * @throws IllegalStateException If the player is already queued
+     */
+    public void enqueue(UUID player) throws IllegalStateException {
+        enqueue(null, new UUID[]{player});
+    }
+
+    private void enqueue(Party party, UUID[] players) throws IllegalStateException, IllegalArgumentException {
+        if (players.length > teamCapacity)
+            throw new IllegalArgumentException("Party is too large for this queue");
+        add(new Unit(this, party, players, nextSequence++), false);
+    }
+
+    /**
+     * Adds the given unit to this queue
+     *
+     * @param unit Unit
+     * @param first {@code true} to add it in front of the units of the same size
+     * @throws IllegalStateException If one of its players is already queued
+     */
+    private void add(Unit unit, boolean first) throws IllegalStateException {
+        matchmaker.add(unit, unit.players);
+        ArrayDeque<Unit> bucket = buckets.get(unit.players.length);
+        if (first)
+            bucket.addFirst(unit);
+        else
+            bucket.add(unit);
+        size += unit.players.length;
+        units++;
+    }
+
+    /**
+     * Checks if the given player is waiting in this queue
+     *
+     * @param player Player
+     * @return {@code true} if the player is queued
+     */
+    public boolean contains(UUID player) {
+        return matchmaker.getQueue(player) == this;
+    }
+
+    /**
+     * Removes the unit that the given player was queued with from this queue, which also removes the rest of
+     * their party
+     *
+     * @param player Player
+     * @return {@code true} if the player was in this queue
+     */
+    public boolean dequeue(UUID player) {
+        return contains(player) && matchmaker.dequeue(player);
+    }
+
+    /**
+     * Marks the given unit as removed, leaving it in its bucket until it is reached
+     *
+     * @param unit Unit
+     */
+    void removed(Unit unit) {
+        unit.removed = true;
+        size -= unit.players.length;
+        units--;
+        if (!unit.polled && ++removedUnits > 64 && removedUnits > units) { // purge once removed units outnumber queued ones
+            for (ArrayDeque<Unit> bucket : buckets)
+                bucket.removeIf(queued -> queued.removed);
+            removedUnits = 0;
+        }
+    }
+
+    /**
+     * Forms as many matches as possible from the units waiting in this queue
+     * <p>
+     * If the handler fails to start a match, its players are queued again in their old place and no more
+     * matches are formed until the next round
+     *
+     * @return Amount of matches formed
+     */
+    int match() {
+        int matches = 0;
+        ArrayList<Unit> taken = new ArrayList<>();
+        while (size >= minPlayers) {
+            taken.clear();
+            Match match = matchOnce(true, taken);
+            if (match == null)
+                match = matchOnce(false, taken);
+            if (match == null)
+                break;
+
+            try {
+                handler.accept(match);
+            } catch (RuntimeException e) {
+                getManager().getPlugin().getLogger().log(Level.SEVERE, "Exception while starting match in queue "
+                        + name + ", so its players were queued again", e);
+                requeue(taken);
+                break;
+            }
+            matches++;
+        }
+        return matches;
+    }
+
+    /**
+     * Forms a match from the units waiting in this queue and dequeues them
+     *
+     * @param seeded {@code true} to start the match with the unit that has waited the longest
+     * @param taken List to add the units in the match to, in the order they were taken
+     * @return Match, or null if there are not enough units to form one
+     */
+    private Match matchOnce(boolean seeded, List<Unit> taken) {
+        int[] room = new int[teamCount];
+        Arrays.fill(room, teamCapacity);
+        ArrayList<ArrayList<Unit>> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++)
+            teams.add(new ArrayList<>());
+
+        if (seeded) {
+            Unit oldest = null;
+            for (ArrayDeque<Unit> bucket : buckets) {
+                Unit unit = peekAvailable(bucket);
+                if (unit != null && (oldest == null || unit.sequence < oldest.sequence))
+                    oldest = unit;
+            }
+            if (oldest == null)
+                return null;
+            take(oldest, teams.get(0), taken);
+            room[0] -= oldest.players.length;
+        }
+
+        for (int unitSize = teamCapacity; unitSize > 0; unitSize--) { // largest units first
+            ArrayDeque<Unit> bucket = buckets.get(unitSize);
+            Unit unit;
+            while ((unit = peekAvailable(bucket)) != null) {
+                int team = 0; // team with the most room keeps teams balanced
+                for (int i = 1; i < teamCount; i++) {
+                    if (room[i] > room[team])
+                        team = i;
+                }
+                if (room[team] < unitSize)
+                    break;
+
+                take(unit, teams.get(team), taken);
+                room[team] -= unitSize;
+            }
+        }
+
+        int total = 0;
+        boolean enough = true;
+        for (int i = 0; i < teamCount; i++) {
+            total += teamCapacity - room[i];
+            if (teamCapacity - room[i] < minTeamSize)
+                enough = false;
+        }
+        if (!enough || total < minPlayers) { // put the units back in their original order
+            for (int i = taken.size() - 1; i >= 0; i--) {
+                Unit unit = taken.get(i);
+                unit.polled = false;
+                buckets.get(unit.players.length).addFirst(unit);
+            }
+            taken.clear();
+            return null;
+        }
+
+        List<List<UUID>> teamPlayers = new ArrayList<>(teamCount);
+        List<Party> parties = new ArrayList<>();
+        for (ArrayList<Unit> team : teams) {
+            ArrayList<UUID> players = new ArrayList<>();
+            for (Unit unit : team) {
+                Collections.addAll(players, unit.players);
+                if (unit.party != null)
+                    parties.add(unit.party);
+                matchmaker.dequeue(unit.players[0]);
+            }
+            teamPlayers.add(Collections.unmodifiableList(players));
+        }
+        return new Match(this, Collections.unmodifiableList(teamPlayers), Collections.unmodifiableList(parties));
+    }
+
+    /**
+     * Gets the first unit in the given bucket that can be matched, dropping the units in front of it that
+     * were removed or can no longer be matched
+     *
+     * @param bucket Bucket
+     * @return First available unit, or null if there is none
+     */
+    private Unit peekAvailable(ArrayDeque<Unit> bucket) {
+        Unit unit;
+        while ((unit = bucket.peek()) != null) {
+            if (unit.removed) {
+                bucket.poll();
+                unit.polled = true;
+                removedUnits--;
+            } else if (!matchmaker.isAvailable(unit)) { // someone went offline or joined a game since queueing
+                bucket.poll();
+                unit.polled = true;
+                matchmaker.dequeue(unit.players[0]);
+            } else {
+                return unit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes the given unit out of its bucket and adds it to a team
+     *
+     * @param unit Unit, which must be first in its bucket
+     * @param team Team
+     * @param taken Units taken so far
+     */
+    private void take(Unit unit, List<Unit> team, List<Unit> taken) {
+        buckets.get(unit.players.length).poll();
+        unit.polled = true;
+        team.add(unit);
+        taken.add(unit);
+    }
+
+    /**
+     * Queues the units of a match that could not be started again in their old place
+     *
+     * @param taken Units in the match, in the order they were taken
+     */
+    private void requeue(List<Unit> taken) {
+        for (int i = taken.size() - 1; i >= 0; i--) {
+            Unit unit = taken.get(i);
+            try {
+                add(new Unit(this, unit.party, unit.players, unit.sequence), true);
+            } catch (IllegalStateException e) { // the handler queued some of them elsewhere
+                getManager().getPlugin().getLogger().warning("Could not queue players "
+                        + Arrays.toString(unit.players) + " again in queue " + name);
+            }
+        }
+    }
+
+}
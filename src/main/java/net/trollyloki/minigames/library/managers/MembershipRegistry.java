@@ -0,0 +1,156 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only view of party and game membership that is safe to query from any thread
+ * <p>
+ * Membership is only ever changed on the main thread through {@link Party} and {@link Game}, which mirror
+ * their changes into concurrent maps and sets. Readers never lock, and every query reflects all changes
+ * that were completed before it began, so this can be used from async events such as
+ * {@link org.bukkit.event.player.AsyncPlayerChatEvent} without scheduling back onto the main thread.
+ * <p>
+ * Methods of the returned parties and games other than {@link Party#getPlayers()} and
+ * {@link Game#getPlayers()} are not thread-safe and should only be called on the main thread
+ */
+public final class MembershipRegistry {
+
+    private final ConcurrentHashMap<UUID, Party> parties;
+    private final ConcurrentHashMap<UUID, Game> games;
+
+    /**
+     * Constructs a new empty membership registry
+     */
+    MembershipRegistry() {
+        this.parties = new ConcurrentHashMap<>();
+        this.games = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the party that the given player is in
+     *
+     * @param player Player
+     * @return Possibly null party
+     */
+    public Party getParty(UUID player) {
+        return parties.get(player);
+    }
+
+    /**
+     * Gets the game that the given player is in
+     *
+     * @param player Player
+     * @return Possibly null game
+     */
+    public Game getGame(UUID player) {
+        return games.get(player);
+    }
+
+    /**
+     * Checks if the given player is in a party
+     *
+     * @param player Player
+     * @return {@code true} if the player is in a party
+     */
+    public boolean inParty(UUID player) {
+        return parties.containsKey(player);
+    }
+
+    /**
+     * Checks if the given player is in a game
+     *
+     * @param player Player
+     * @return {@code true} if the player is in a game
+     */
+    public boolean inGame(UUID player) {
+        return games.containsKey(player);
+    }
+
+    /**
+     * Gets the players in the same party as the given player, including the player
+     *
+     * @param player Player
+     * @return Live read-only set of players, or an empty set if the player is not in a party
+     */
+    public Set<UUID> getPartyMembers(UUID player) {
+        Party party = parties.get(player);
+        return party != null ? party.getPlayers() : Collections.emptySet();
+    }
+
+    /**
+     * Gets the online players in the same party as the given player, including the player if online
+     *
+     * @param player Player
+     * @return Live read-only set of online players, or an empty set if the player is not in a party
+     */
+    public Set<Player> getOnlinePartyMembers(UUID player) {
+        Party party = parties.get(player);
+        return party != null ? party.getConcurrentOnlinePlayers() : Collections.emptySet();
+    }
+
+    /**
+     * Gets the players in the same game as the given player, including the player
+     *
+     * @param player Player
+     * @return Live read-only set of players, or an empty set if the player is not in a game
+     */
+    public Set<UUID> getGameMembers(UUID player) {
+        Game game = games.get(player);
+        return game != null ? game.getPlayers() : Collections.emptySet();
+    }
+
+    /**
+     * Gets the online players in the same game as the given player, including the player if online
+     *
+     * @param player Player
+     * @return Live read-only set of online players, or an empty set if the player is not in a game
+     */
+    public Set<Player> getOnlineGameMembers(UUID player) {
+        Game game = games.get(player);
+        return game != null ? game.getConcurrentOnlinePlayers() : Collections.emptySet();
+    }
+
+    /**
+     * Records that the given player is in the given party
+     *
+     * @param player Player
+     * @param party Party
+     */
+    void setParty(UUID player, Party party) {
+        parties.put(player, party);
+    }
+
+    /**
+     * Records that the given player is no longer in a party
+     *
+     * @param player Player
+     */
+    void removeParty(UUID player) {
+        parties.remove(player);
+    }
+
+    /**
+     * Records that the given player is in the given game
+     *
+     * @param player Player
+     * @param game Game
+     */
+    void setGame(UUID player, Game game) {
+        games.put(player, game);
+    }
+
+    /**
+     * Records that the given player is no longer in a game
+     *
+     * @param player Player
+     */
+    void removeGame(UUID player) {
+        games.remove(player);
+    }
+
+}
@@ -1,7 +1,12 @@
 package net.trollyloki.minigames.library.managers;
 
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import net.trollyloki.minigames.library.utils.UUIDMap;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -9,7 +14,11 @@ import org.bukkit.event.entity.*;
 import org.bukkit.event.player.*;
 import org.bukkit.plugin.Plugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Listener class for passing events to parties
@@ -17,8 +26,26 @@ import java.util.*;
 public class MiniGameManager implements Listener {
 
     private final Plugin plugin;
-    private final Map<UUID, Party> parties;
-    private final Map<UUID, Game> games;
+    private final UUIDMap<Party> parties;
+    private final UUIDMap<Game> games;
+    private final MembershipRegistry membership;
+    private final ChatRouter chat;
+    private final GameTicker ticker;
+    private final GameEventBus eventBus;
+    private final ArenaIndex arenas;
+    private final ScoreboardRefresher refresher;
+    private final Map<Game, Set<GameCallback>> callbacks;
+    private final EnumMap<GameCallback, Integer> callbackUsers;
+    private final EnumMap<GameCallback, Listener> callbackListeners;
+    private final HashMap<UUID, Set<Party>> invites;
+    private long inviteTimeout = 1200;
+    private final HashMap<UUID, Long> quitTicks;
+    private long partyGracePeriod = 0, gameGracePeriod = 0, restoreGracePeriod = 0;
+    private final HashSet<UUID> restored;
+    private long nextPartyId = 1;
+    private PartyJournal journal = null;
+    private final GameCheckpointer checkpointer;
+    private final Matchmaker matchmaker;
 
     /**
      * Constructs a new party listener
@@ -27,8 +54,24 @@ public class MiniGameManager implements Listener {
      */
     public MiniGameManager(Plugin plugin) {
         this.plugin = plugin;
-        this.parties = new HashMap<>();
-        this.games = new HashMap<>();
+        this.parties = new UUIDMap<>();
+        this.games = new UUIDMap<>();
+        this.membership = new MembershipRegistry();
+        this.chat = new ChatRouter(membership);
+        this.ticker = new GameTicker(this);
+        this.eventBus = new GameEventBus(this);
+        this.arenas = new ArenaIndex();
+        this.refresher = new ScoreboardRefresher(this);
+        this.callbacks = new HashMap<>();
+        this.callbackUsers = new EnumMap<>(GameCallback.class);
+        this.callbackListeners = new EnumMap<>(GameCallback.class);
+        this.invites = new HashMap<>();
+        this.quitTicks = new HashMap<>();
+        this.restored = new HashSet<>();
+        this.checkpointer = new GameCheckpointer(this);
+        this.matchmaker = new Matchmaker(this);
+
+        ticker.runTaskTimer(plugin, 0, 1);
     }
 
     /**
@@ -66,6 +109,26 @@ public class MiniGameManager implements Listener {
         return Collections.unmodifiableSet(onlinePlayers);
     }
 
+    /**
+     * Gets the membership registry, which can be queried from any thread
+     * <p>
+     * The other membership methods of this manager should only be called on the main thread
+     *
+     * @return Membership registry
+     */
+    public MembershipRegistry getMembership() {
+        return membership;
+    }
+
+    /**
+     * Gets the chat router, which must be registered as a listener for party and game chat channels to work
+     *
+     * @return Chat router
+     */
+    public ChatRouter getChatRouter() {
+        return chat;
+    }
+
     /**
      * Checks if the given player is in a party
      *
@@ -106,6 +169,491 @@ public class MiniGameManager implements Listener {
         return games.get(player);
     }
 
+    /**
+     * Gets the parties that have invited the given player
+     *
+     * @param player Player
+     * @return Unmodifiable set of parties
+     */
+    public Set<Party> getInvites(UUID player) {
+        Set<Party> set = invites.get(player);
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    /**
+     * Records that the given party has invited the given player
+     *
+     * @param player Player
+     * @param party Party
+     */
+    void addInvite(UUID player, Party party) {
+        invites.computeIfAbsent(player, uuid -> new LinkedHashSet<>()).add(party);
+    }
+
+    /**
+     * Records that the given party no longer invites the given player
+     *
+     * @param player Player
+     * @param party Party
+     */
+    void removeInvite(UUID player, Party party) {
+        Set<Party> set = invites.get(player);
+        if (set != null && set.remove(party) && set.isEmpty())
+            invites.remove(player);
+    }
+
+    /**
+     * Withdraws all invites to the given player
+     *
+     * @param player Player
+     * @return Amount of invites that were withdrawn
+     */
+    public int clearInvites(UUID player) {
+        Set<Party> set = invites.remove(player);
+        if (set == null)
+            return 0;
+        for (Party party : set)
+            party.dropInvite(player);
+        return set.size();
+    }
+
+    /**
+     * Gets the amount of ticks after which party invites expire
+     *
+     * @return Timeout in ticks, or zero if invites never expire
+     */
+    public long getInviteTimeout() {
+        return inviteTimeout;
+    }
+
+    /**
+     * Sets the amount of ticks after which new party invites expire
+     *
+     * @param ticks Timeout in ticks, or zero if invites should never expire
+     * @throws IllegalArgumentException If the timeout is negative
+     */
+    public void setInviteTimeout(long ticks) throws IllegalArgumentException {
+        if (ticks < 0)
+            throw new IllegalArgumentException("Invite timeout cannot be negative");
+        this.inviteTimeout = ticks;
+    }
+
+    /**
+     * Gets the amount of ticks that players may be offline before they are removed from their party
+     *
+     * @return Grace period in ticks, or zero if offline players are never removed
+     */
+    public long getPartyGracePeriod() {
+        return partyGracePeriod;
+    }
+
+    /**
+     * Sets the amount of ticks that players may be offline before they are removed from their party
+     * <p>
+     * This is disabled by default, so offline players stay in their party until they are removed. Parties
+     * that have no online players left when a player is removed are disbanded. This applies to players who
+     * quit after it is set
+     *
+     * @param ticks Grace period in ticks, or zero if offline players should never be removed
+     * @throws IllegalArgumentException If the grace period is negative
+     */
+    public void setPartyGracePeriod(long ticks) throws IllegalArgumentException {
+        if (ticks < 0)
+            throw new IllegalArgumentException("Grace period cannot be negative");
+        this.partyGracePeriod = ticks;
+    }
+
+    /**
+     * Gets the amount of ticks that players may be offline before they are removed from their game
+     *
+     * @return Grace period in ticks, or zero if offline players are never removed
+     */
+    public long getGameGracePeriod() {
+        return gameGracePeriod;
+    }
+
+    /**
+     * Sets the amount of ticks that players may be offline before they are removed from their game
+     * <p>
+     * This is disabled by default, since games may rely on players being able to rejoin at any time. This
+     * applies to players who quit after it is set
+     *
+     * @param ticks Grace period in ticks, or zero if offline players should never be removed
+     * @throws IllegalArgumentException If the grace period is negative
+     */
+    public void setGameGracePeriod(long ticks) throws IllegalArgumentException {
+        if (ticks < 0)
+            throw new IllegalArgumentException("Grace period cannot be negative");
+        this.gameGracePeriod = ticks;
+    }
+
+    /**
+     * Gets the amount of ticks that players restored by {@link #enablePersistence(File) persistence} may
+     * stay offline before they are removed from their party, if they have not joined since the restart
+     *
+     * @return Grace period in ticks, or zero if restored players are only removed once they quit again
+     */
+    public long getRestoreGracePeriod() {
+        return restoreGracePeriod;
+    }
+
+    /**
+     * Sets the amount of ticks that players restored by {@link #enablePersistence(File) persistence} may
+     * stay offline before they are removed from their party, if they have not joined since the restart
+     * <p>
+     * This is disabled by default, so that parties survive a restart no matter how long their players take
+     * to come back. Restored players who join and quit again get the normal {@link #getPartyGracePeriod()
+     * grace period}. Setting this starts a new grace period for every restored player who has not joined
+     * yet, and it has no effect while the party grace period is zero
+     *
+     * @param ticks Grace period in ticks, or zero if restored players should only be removed once they quit
+     * @throws IllegalArgumentException If the grace period is negative
+     */
+    public void setRestoreGracePeriod(long ticks) throws IllegalArgumentException {
+        if (ticks < 0)
+            throw new IllegalArgumentException("Grace period cannot be negative");
+        this.restoreGracePeriod = ticks;
+        restored.removeIf(player -> getParty(player) == null);
+        for (UUID player : restored)
+            scheduleRestoredEviction(player);
+    }
+
+    /**
+     * Schedules the given restored player to be removed from their party once the restore grace period has
+     * passed, or cancels their removal if it is disabled
+     *
+     * @param player Player
+     */
+    private void scheduleRestoredEviction(UUID player) {
+        if (restoreGracePeriod > 0 && partyGracePeriod > 0) {
+            long tick = getCurrentTick() + restoreGracePeriod - partyGracePeriod; // as if they quit that long ago
+            quitTicks.put(player, tick);
+            schedule(restoreGracePeriod, () -> evict(player, tick));
+        } else
+            quitTicks.remove(player);
+    }
+
+    /**
+     * Schedules the given offline player to be removed from their party and game once the grace period for
+     * either of them has passed
+     *
+     * @param player Player
+     * @param party Possibly null party of the player
+     * @param game Possibly null game of the player
+     */
+    private void scheduleEviction(UUID player, Party party, Game game) {
+        long delay = Long.MAX_VALUE; // schedule a single eviction for whichever grace period ends first
+        if (party != null && partyGracePeriod > 0)
+            delay = partyGracePeriod;
+        if (game != null && gameGracePeriod > 0)
+            delay = Math.min(delay, gameGracePeriod);
+        if (delay != Long.MAX_VALUE) {
+            long tick = getCurrentTick();
+            quitTicks.put(player, tick);
+            schedule(delay, () -> evict(player, tick));
+        }
+    }
+
+    /**
+     * Removes the given player from their party and game once they have been offline for the grace period,
+     * checking again later if only one of the grace periods has passed
+     *
+     * @param player Player
+     * @param quitTick Tick the player quit on
+     */
+    private void evict(UUID player, long quitTick) {
+        Long current = quitTicks.get(player);
+        if (current == null || current != quitTick) // player has rejoined since
+            return;
+
+        long offline = getCurrentTick() - quitTick;
+        long remaining = Long.MAX_VALUE;
+
+        Party party = getParty(player);
+        if (party != null && partyGracePeriod > 0) {
+            if (offline >= partyGracePeriod) {
+                party.remove(player);
+                if (party.getOnlinePlayers().isEmpty())
+                    party.disband();
+            } else
+                remaining = partyGracePeriod - offline;
+        }
+
+        Game game = getGame(player);
+        if (game != null && gameGracePeriod > 0) {
+            if (offline >= gameGracePeriod)
+                game.remove(player);
+            else
+                remaining = Math.min(remaining, gameGracePeriod - offline);
+        }
+
+        if (remaining == Long.MAX_VALUE)
+            quitTicks.remove(player);
+        else
+            schedule(remaining, () -> evict(player, quitTick));
+    }
+
+    /**
+     * Gets a new unique party id
+     *
+     * @return Party id
+     */
+    long nextPartyId() {
+        return nextPartyId++;
+    }
+
+    /**
+     * Records a change to the given party in the journal, if persistence is enabled
+     *
+     * @param op Journal operation
+     * @param party Party
+     * @param player Player
+     */
+    void journal(byte op, Party party, UUID player) {
+        if (journal != null)
+            journal.append(op, party.getId(), player);
+    }
+
+    /**
+     * Checks if parties are being saved
+     *
+     * @return {@code true} if persistence is enabled
+     */
+    public boolean isPersistenceEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Restores the parties saved in the given directory and starts saving all changes to parties there
+     * <p>
+     * Changes are appended to a journal on a background thread, which is periodically compacted into a
+     * snapshot. Restored invites start a new {@link #getInviteTimeout() timeout}. Restored players that are
+     * offline stay in their party until they join and quit again, or until the
+     * {@link #getRestoreGracePeriod() restore grace period} passes if it is set
+     *
+     * @param directory Directory
+     * @return Amount of parties that were restored
+     * @throws IOException If the saved parties could not be read
+     * @throws IllegalStateException If persistence is already enabled
+     */
+    public int enablePersistence(File directory) throws IOException, IllegalStateException {
+        if (journal != null)
+            throw new IllegalStateException("Persistence is already enabled");
+
+        PartyJournal journal = new PartyJournal(directory.toPath(), plugin.getLogger());
+        int count = 0;
+        for (Map.Entry<Long, PartyJournal.PartyState> entry : journal.load().entrySet()) {
+            PartyJournal.PartyState state = entry.getValue();
+            if (state.members.isEmpty())
+                continue;
+
+            Party party = new Party(this, entry.getKey());
+            nextPartyId = Math.max(nextPartyId, entry.getKey() + 1);
+            for (UUID player : state.members) {
+                try {
+                    party.add(player);
+                } catch (IllegalStateException e) { // should never happen since the journal is replayed in order
+                    plugin.getLogger().warning("Saved party " + party.getId() + " contains player " + player
+                            + " who is already in another party");
+                    continue;
+                }
+                if (state.moderators.contains(player))
+                    party.promote(player);
+                if (getOnlinePlayer(player) == null) { // not evicted until seen offline since the restart
+                    restored.add(player);
+                    scheduleRestoredEviction(player);
+                }
+            }
+            for (UUID player : state.invitees) {
+                if (!party.contains(player))
+                    party.invite(player);
+            }
+            if (party.size() > 0)
+                count++;
+        }
+
+        this.journal = journal; // start after restoring so restored changes are not journaled again
+        journal.start();
+        return count;
+    }
+
+    /**
+     * Writes all pending party changes, compacts them into a snapshot and stops saving parties
+     * <p>
+     * This blocks until the background writer has finished, so it should only be called when disabling
+     */
+    public void disablePersistence() {
+        if (journal == null)
+            return;
+        journal.close();
+        journal = null;
+    }
+
+    /**
+     * Gets the checkpointer that saves games
+     *
+     * @return Game checkpointer
+     */
+    GameCheckpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    /**
+     * Registers a factory that creates empty games of the given checkpoint type, which is used to restore
+     * games of that type from their checkpoints
+     *
+     * @param type Checkpoint type
+     * @param factory Game factory
+     */
+    public void registerCheckpointType(String type, Function<MiniGameManager, ? extends Game> factory) {
+        checkpointer.registerType(type, factory);
+    }
+
+    /**
+     * Checks if game checkpoints are being saved
+     *
+     * @return {@code true} if checkpoints are enabled
+     */
+    public boolean areCheckpointsEnabled() {
+        return checkpointer.isEnabled();
+    }
+
+    /**
+     * Starts saving checkpoints of all {@link Game#isCheckpointed() checkpointed} games to the given
+     * directory on a cadence
+     * <p>
+     * Games are encoded on the main thread and written to disk asynchronously
+     *
+     * @param directory Directory
+     * @param interval Interval in ticks
+     * @throws IOException If the directory could not be created
+     * @throws IllegalArgumentException If the interval is less than one
+     * @throws IllegalStateException If checkpoints are already enabled
+     */
+    public void enableCheckpoints(File directory, long interval)
+            throws IOException, IllegalArgumentException, IllegalStateException {
+        if (interval < 1)
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1");
+        if (checkpointer.isEnabled())
+            throw new IllegalStateException("Checkpoints are already enabled");
+        checkpointer.enable(directory.toPath(), interval);
+    }
+
+    /**
+     * Saves a checkpoint of the given game now, for example after an important event in a match
+     *
+     * @param game Game
+     * @return {@code true} if a checkpoint was saved
+     */
+    public boolean checkpoint(Game game) {
+        return checkpointer.checkpoint(game);
+    }
+
+    /**
+     * Restores every game that has a checkpoint, using the factories registered for their checkpoint types
+     * <p>
+     * This should be called once all checkpoint types are registered. Checkpoints of types that are not
+     * registered are skipped and kept, and checkpoints that are corrupt are renamed with a {@code .corrupt}
+     * extension instead of partially restoring their game
+     *
+     * @return List of restored games
+     * @throws IOException If the checkpoint directory could not be read
+     * @throws IllegalStateException If checkpoints are not enabled
+     */
+    public List<Game> restoreCheckpoints() throws IOException, IllegalStateException {
+        if (!checkpointer.isEnabled())
+            throw new IllegalStateException("Checkpoints are not enabled");
+        return checkpointer.restore();
+    }
+
+    /**
+     * Saves a final checkpoint of all checkpointed games and stops saving checkpoints
+     * <p>
+     * This blocks until the checkpoints have been written, so it should only be called when disabling
+     */
+    public void disableCheckpoints() {
+        checkpointer.disable();
+    }
+
+    /**
+     * Creates a new matchmaking queue that periodically groups the parties and players waiting in it into
+     * teams and passes each match to the given handler, which is expected to start a game for it
+     *
+     * @param name Name
+     * @param minPlayers Minimum amount of players in a match
+     * @param maxPlayers Maximum amount of players in a match
+     * @param teamCount Amount of teams in a match
+     * @param handler Match handler
+     * @return Matchmaking queue
+     * @throws IllegalArgumentException If a queue with the given name exists or the sizes are not possible
+     */
+    public MatchmakingQueue createQueue(String name, int minPlayers, int maxPlayers, int teamCount,
+                                       Consumer<? super Match> handler) throws IllegalArgumentException {
+        return matchmaker.createQueue(name, minPlayers, maxPlayers, teamCount, handler);
+    }
+
+    /**
+     * Gets the matchmaking queue with the given name
+     *
+     * @param name Name
+     * @return Possibly null queue
+     */
+    public MatchmakingQueue getQueue(String name) {
+        return matchmaker.getQueue(name);
+    }
+
+    /**
+     * Removes the matchmaking queue with the given name along with everyone waiting in it
+     *
+     * @param name Name
+     * @return {@code true} if the queue existed
+     */
+    public boolean removeQueue(String name) {
+        return matchmaker.removeQueue(name);
+    }
+
+    /**
+     * Gets the matchmaking queue the given player is waiting in
+     *
+     * @param player Player
+     * @return Possibly null queue
+     */
+    public MatchmakingQueue getQueue(UUID player) {
+        return matchmaker.getQueue(player);
+    }
+
+    /**
+     * Removes the given player from the matchmaking queue they are waiting in, along with the rest of the
+     * party they were queued with
+     *
+     * @param player Player
+     * @return {@code true} if the player was queued
+     */
+    public boolean dequeue(UUID player) {
+        return matchmaker.dequeue(player);
+    }
+
+    /**
+     * Gets the amount of ticks between matchmaking rounds
+     *
+     * @return Interval in ticks
+     */
+    public long getMatchmakingInterval() {
+        return matchmaker.getInterval();
+    }
+
+    /**
+     * Sets the amount of ticks between matchmaking rounds
+     *
+     * @param ticks Interval in ticks
+     * @throws IllegalArgumentException If the interval is less than 1
+     */
+    public void setMatchmakingInterval(long ticks) throws IllegalArgumentException {
+        if (ticks < 1)
+            throw new IllegalArgumentException("Matchmaking interval must be at least 1");
+        matchmaker.setInterval(ticks);
+    }
+
     /**
      * Puts the given player in the given party
      *
@@ -114,7 +662,10 @@ public class MiniGameManager implements Listener {
      * @return {@code true} if the player was not already in a party
      */
     boolean joinParty(UUID player, Party party) {
-        return parties.putIfAbsent(player, party) == null;
+        if (parties.putIfAbsent(player, party) != null)
+            return false;
+        membership.setParty(player, party);
+        return true;
     }
 
     /**
@@ -124,7 +675,10 @@ public class MiniGameManager implements Listener {
      * @return {@code true} if the player was in a party
      */
     boolean leaveParty(UUID player) {
-        return parties.remove(player) != null;
+        if (parties.remove(player) == null)
+            return false;
+        membership.removeParty(player);
+        return true;
     }
 
     /**
@@ -135,7 +689,10 @@ public class MiniGameManager implements Listener {
      * @return {@code true} if the player was not already in a game
      */
     boolean joinGame(UUID player, Game game) {
-        return games.putIfAbsent(player, game) == null;
+        if (games.putIfAbsent(player, game) != null)
+            return false;
+        membership.setGame(player, game);
+        return true;
     }
 
     /**
@@ -145,89 +702,364 @@ public class MiniGameManager implements Listener {
      * @return {@code true} if the player was in a game
      */
     boolean leaveGame(UUID player) {
-        return games.remove(player) != null;
+        if (games.remove(player) == null)
+            return false;
+        membership.removeGame(player);
+        return true;
+    }
+
+    /**
+     * Gets the event bus that passes subscribed events to games
+     *
+     * @return Game event bus
+     */
+    GameEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Registers the given game so that it is ticked by this manager and receives the callbacks it needs
+     *
+     * @param game Game
+     */
+    void registerGame(Game game) {
+        if (callbacks.containsKey(game))
+            return;
+        Set<GameCallback> needed = GameCallback.of(game.getClass());
+        callbacks.put(game, needed);
+        for (GameCallback callback : needed) {
+            int users = callbackUsers.getOrDefault(callback, 0);
+            if (users == 0)
+                registerCallback(callback);
+            callbackUsers.put(callback, users + 1);
+        }
+        ticker.add(game);
+
+        if (game.getRegions().isEmpty())
+            arenas.addUnbounded(game);
+        else {
+            for (BlockRegion region : game.getRegions())
+                arenas.addRegion(game, region);
+        }
+    }
+
+    /**
+     * Stops ticking the given game without unregistering it
+     *
+     * @param game Game
+     */
+    void stopTicking(Game game) {
+        ticker.remove(game);
+    }
+
+    /**
+     * Unregisters the given game so that it is no longer ticked by this manager, and unregisters listeners
+     * that no other game needs
+     *
+     * @param game Game
+     */
+    void unregisterGame(Game game) {
+        Set<GameCallback> needed = callbacks.remove(game);
+        if (needed == null)
+            return;
+        for (GameCallback callback : needed) {
+            int users = callbackUsers.getOrDefault(callback, 0) - 1;
+            if (users <= 0) {
+                callbackUsers.remove(callback);
+                unregisterCallback(callback);
+            } else
+                callbackUsers.put(callback, users);
+        }
+        ticker.remove(game);
+
+        arenas.removeUnbounded(game);
+        for (BlockRegion region : game.getRegions())
+            arenas.removeRegion(game, region, Collections.emptyList());
+    }
+
+    /**
+     * Indexes a region that was added to the given game
+     *
+     * @param game Game
+     * @param region Region
+     */
+    void addRegion(Game game, BlockRegion region) {
+        if (!callbacks.containsKey(game)) // closed games are not indexed
+            return;
+        arenas.removeUnbounded(game);
+        arenas.addRegion(game, region);
+    }
+
+    /**
+     * Removes a region that was removed from the given game from the index
+     *
+     * @param game Game
+     * @param region Region
+     */
+    void removeRegion(Game game, BlockRegion region) {
+        if (!callbacks.containsKey(game))
+            return;
+        arenas.removeRegion(game, region, game.getRegions());
+        if (game.getRegions().isEmpty())
+            arenas.addUnbounded(game);
+    }
+
+    /**
+     * Registers a listener for the given callback
+     *
+     * @param callback Callback
+     */
+    private void registerCallback(GameCallback callback) {
+        Listener listener = new Listener() {};
+        callbackListeners.put(callback, listener);
+        getPlugin().getServer().getPluginManager().registerEvent(callback.getEventClass(), listener,
+                EventPriority.NORMAL, (l, event) -> callback.dispatch(this, event), getPlugin());
+    }
+
+    /**
+     * Unregisters the listener for the given callback
+     *
+     * @param callback Callback
+     */
+    private void unregisterCallback(GameCallback callback) {
+        Listener listener = callbackListeners.remove(callback);
+        if (listener != null)
+            HandlerList.unregisterAll(listener);
+    }
+
+    /**
+     * Checks if the listener for the given callback is currently registered
+     *
+     * @param callback Callback
+     * @return {@code true} if at least one game needs the callback
+     */
+    public boolean isRegistered(GameCallback callback) {
+        return callbackListeners.containsKey(callback);
+    }
+
+    /**
+     * Gets the amount of time game ticks may take before deferred tasks are postponed to the next tick
+     *
+     * @return Budget in nanoseconds
+     */
+    public long getTickBudget() {
+        return ticker.getBudget();
+    }
+
+    /**
+     * Sets the amount of time game ticks may take before deferred tasks are postponed to the next tick
+     *
+     * @param nanos Budget in nanoseconds
+     * @throws IllegalArgumentException If the budget is negative
+     */
+    public void setTickBudget(long nanos) throws IllegalArgumentException {
+        if (nanos < 0)
+            throw new IllegalArgumentException("Tick budget cannot be negative");
+        ticker.setBudget(nanos);
+    }
+
+    /**
+     * Gets the amount of time spent ticking games and running deferred tasks during the last tick
+     *
+     * @return Time in nanoseconds
+     */
+    public long getLastTickTime() {
+        return ticker.getLastTickTime();
+    }
+
+    /**
+     * Queues a task to be run once at the end of the current tick, after all games have been ticked
+     * <p>
+     * Unlike {@link #defer(Runnable) deferred tasks}, these tasks always run regardless of the tick budget
+     *
+     * @param task Task
+     */
+    public void runAfterTick(Runnable task) {
+        ticker.runAfterTick(task);
+    }
+
+    /**
+     * Queues a low priority task, such as a scoreboard refresh or a cosmetic effect, to be run after all
+     * games have been ticked and only while there is {@link #getTickBudget() tick budget} left
+     *
+     * @param task Task
+     */
+    public void defer(Runnable task) {
+        ticker.defer(task);
+    }
+
+    /**
+     * Gets the amount of ticks that have passed since this manager was created
+     *
+     * @return Current tick
+     */
+    public long getCurrentTick() {
+        return ticker.getCurrentTick();
+    }
+
+    /**
+     * Schedules a task to be run after the given amount of ticks on a timing wheel shared by all parties and
+     * games, so that scheduling many tasks does not create a Bukkit task for each one
+     *
+     * @param delay Delay in ticks
+     * @param task Task
+     */
+    void schedule(long delay, Runnable task) {
+        ticker.schedule(delay, task);
     }
 
     /**
-     * Updates all scoreboards in all active games
+     * Runs an action on each of the given items as {@link #defer(Runnable) deferred tasks}, processing at
+     * most the given amount of items each tick so that large batches are spread over several ticks
+     * <p>
+     * An exception thrown by the action is logged, and the remaining items are still processed
+     *
+     * @param items Items, which are copied
+     * @param limit Maximum amount of items to process each tick
+     * @param action Action
+     * @param <T> Type of item
+     * @throws IllegalArgumentException If the limit is less than one
+     */
+    public <T> void deferEach(Collection<? extends T> items, int limit, Consumer<? super T> action)
+            throws IllegalArgumentException {
+        if (limit < 1)
+            throw new IllegalArgumentException("Limit must be at least 1");
+        if (!items.isEmpty())
+            defer(new DeferredBatch<>(this, items, limit, action));
+    }
+
+    /**
+     * Gets the maximum amount of players whose scoreboards are refreshed each tick
+     *
+     * @return Limit
+     */
+    public int getScoreboardRefreshLimit() {
+        return refresher.getLimit();
+    }
+
+    /**
+     * Sets the maximum amount of players whose scoreboards are refreshed each tick, so that large refreshes
+     * are spread over several ticks
+     *
+     * @param limit Limit
+     * @throws IllegalArgumentException If the limit is less than one
+     */
+    public void setScoreboardRefreshLimit(int limit) throws IllegalArgumentException {
+        if (limit < 1)
+            throw new IllegalArgumentException("Refresh limit must be at least 1");
+        refresher.setLimit(limit);
+    }
+
+    /**
+     * Queues the given player to have their game scoreboard reassigned
+     * <p>
+     * This is done automatically when a player in a game joins or changes world
+     *
+     * @param player Player
+     */
+    public void refreshScoreboard(UUID player) {
+        refresher.mark(player);
+    }
+
+    /**
+     * Queues all players in all active games to have their scoreboards reassigned, spread over several
+     * ticks according to the {@link #getScoreboardRefreshLimit() refresh limit}
      */
     public void updateScoreboards() {
-        Set<Game> gameSet = new HashSet<>(games.values());
-        for (Game game : gameSet)
-            game.getScoreboard().updateScoreboards();
+        for (Game game : callbacks.keySet())
+            refresher.markAll(game.getPlayers());
     }
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
+        quitTicks.remove(event.getPlayer().getUniqueId());
+        restored.remove(event.getPlayer().getUniqueId());
+
+        Party party = getParty(event.getPlayer().getUniqueId());
+        if (party != null)
+            party.setOnline(event.getPlayer());
+
         Game game = getGame(event.getPlayer().getUniqueId());
-        if (game != null)
+        if (game != null) {
+            game.setOnline(event.getPlayer());
+            refreshScoreboard(event.getPlayer().getUniqueId());
             game.onPlayerJoin(event);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        if (inGame(event.getPlayer().getUniqueId()))
+            refreshScoreboard(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
-        if (game != null)
+        if (game != null) {
             game.onPlayerQuit(event);
+            game.setOffline(event.getPlayer().getUniqueId());
+        }
+
+        Party party = getParty(event.getPlayer().getUniqueId());
+        if (party != null)
+            party.setOffline(event.getPlayer().getUniqueId());
+
+        clearInvites(event.getPlayer().getUniqueId());
+        matchmaker.dequeue(event.getPlayer().getUniqueId());
+        scheduleEviction(event.getPlayer().getUniqueId(), party, game);
     }
 
-    @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
-        if (game != null)
+        if (game != null) {
             game.onPlayerMove(event);
+            game.filterMove(event);
+        }
     }
 
-    @EventHandler
     public void onPlayerDropItem(PlayerDropItemEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerDropItem(event);
     }
 
-    @EventHandler
     public void onPlayerGameModeChange(PlayerGameModeChangeEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerGameModeChange(event);
     }
 
-    @EventHandler
     public void onPlayerToggleFlight(PlayerToggleFlightEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerToggleFlight(event);
     }
 
-    @EventHandler
     public void onPlayerFoodLevelChange(FoodLevelChangeEvent event) {
         Game game = getGame(event.getEntity().getUniqueId());
         if (game != null)
             game.onPlayerFoodLevelChange(event);
     }
 
-    @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerInteract(event);
     }
 
-    @EventHandler
     public void onPlayerInteractEntity(PlayerInteractEntityEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerInteractEntity(event);
     }
 
-    @EventHandler
     public void onPlayerArmorStandManipulate(PlayerArmorStandManipulateEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onPlayerArmorStandManipulate(event);
     }
 
-    @EventHandler
     public void onEntityShootBow(EntityShootBowEvent event) {
         if (event.getEntity() instanceof Player) {
             Game game = getGame(event.getEntity().getUniqueId());
@@ -236,7 +1068,6 @@ public class MiniGameManager implements Listener {
         }
     }
 
-    @EventHandler
     public void onProjectileHit(ProjectileHitEvent event) {
         if (event.getEntity().getShooter() instanceof Player) {
             Game game = getGame(((Player) event.getEntity().getShooter()).getUniqueId());
@@ -245,7 +1076,6 @@ public class MiniGameManager implements Listener {
         }
     }
 
-    @EventHandler
     public void onEntityDamage(EntityDamageEvent event) {
         if (event.getEntity() instanceof Player) {
             Game game = getGame(event.getEntity().getUniqueId());
@@ -254,7 +1084,6 @@ public class MiniGameManager implements Listener {
         }
     }
 
-    @EventHandler
     public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
         if (event.getEntity() instanceof Player) {
             Game game = getGame(event.getEntity().getUniqueId());
@@ -263,23 +1092,37 @@ public class MiniGameManager implements Listener {
         }
     }
 
-    @EventHandler
     public void onBlockPlace(BlockPlaceEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onBlockPlace(event);
+
+        Block block = event.getBlock();
+        for (Game arena : arenas.getGames(block.getWorld(), block.getX(), block.getZ())) {
+            if (arena != game && arena.inRegions(block.getWorld(), block.getX(), block.getY(), block.getZ()))
+                arena.onOutsiderBlockPlace(event);
+        }
     }
 
-    @EventHandler
     public void onBlockBreak(BlockBreakEvent event) {
         Game game = getGame(event.getPlayer().getUniqueId());
         if (game != null)
             game.onBlockBreak(event);
+
+        Block block = event.getBlock();
+        for (Game arena : arenas.getGames(block.getWorld(), block.getX(), block.getZ())) {
+            if (arena != game && arena.inRegions(block.getWorld(), block.getX(), block.getY(), block.getZ()))
+                arena.onOutsiderBlockBreak(event);
+        }
     }
 
-    @EventHandler
     public void onEntityChangeBlock(EntityChangeBlockEvent event) {
-        for (Game game : new HashSet<>(games.values()))
+        Block block = event.getBlock();
+        for (Game game : arenas.getGames(block.getWorld(), block.getX(), block.getZ())) {
+            if (game.inRegions(block.getWorld(), block.getX(), block.getY(), block.getZ()))
+                game.onEntityChangeBlock(event);
+        }
+        for (Game game : arenas.getUnbounded())
             game.onEntityChangeBlock(event);
     }
 
@@ -0,0 +1,90 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.utils.UUIDMap;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally updated set of the online members of a party or game
+ */
+class OnlineMembers {
+
+    private final UUIDMap<Player> byId;
+    private final HashSet<Player> players;
+    private final Set<Player> view;
+    private final Set<Player> concurrent;
+    private final Set<Player> concurrentView;
+
+    /**
+     * Constructs a new empty set of online members
+     */
+    OnlineMembers() {
+        this.byId = new UUIDMap<>();
+        this.players = new HashSet<>();
+        this.view = Collections.unmodifiableSet(players);
+        this.concurrent = ConcurrentHashMap.newKeySet();
+        this.concurrentView = Collections.unmodifiableSet(concurrent);
+    }
+
+    /**
+     * Gets a live read-only view of the online members
+     *
+     * @return Set of online players
+     */
+    Set<Player> view() {
+        return view;
+    }
+
+    /**
+     * Gets a live read-only view of the online members that is safe to read from any thread
+     *
+     * @return Set of online players
+     */
+    Set<Player> concurrentView() {
+        return concurrentView;
+    }
+
+    /**
+     * Marks the given member as online
+     *
+     * @param player Player
+     */
+    void add(Player player) {
+        Player old = byId.put(player.getUniqueId(), player);
+        if (old != null) { // replace the instance from a previous session
+            players.remove(old);
+            concurrent.remove(old);
+        }
+        players.add(player);
+        concurrent.add(player);
+    }
+
+    /**
+     * Marks the given member as offline
+     *
+     * @param uuid UUID
+     */
+    void remove(UUID uuid) {
+        Player old = byId.remove(uuid);
+        if (old != null) {
+            players.remove(old);
+            concurrent.remove(old);
+        }
+    }
+
+    /**
+     * Gets the online player instance of the given member
+     *
+     * @param uuid UUID
+     * @return Possibly null player
+     */
+    Player get(UUID uuid) {
+        return byId.get(uuid);
+    }
+
+}
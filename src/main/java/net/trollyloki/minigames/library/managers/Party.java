@@ -1,8 +1,10 @@
 package net.trollyloki.minigames.library.managers;
 
+import net.trollyloki.minigames.library.utils.Broadcast;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a group of players
@@ -10,9 +12,11 @@ import java.util.*;
 public class Party {
 
     private final MiniGameManager manager;
+    private final long id;
     private final Set<UUID> players;
+    private final OnlineMembers onlinePlayers;
     private final Set<UUID> moderators;
-    private final Set<UUID> invitees;
+    private final HashMap<UUID, Long> invitees;
     private Game game;
 
     /**
@@ -21,15 +25,39 @@ public class Party {
      * @param manager Mini-game manager
      */
     public Party(MiniGameManager manager) {
+        this(manager, manager.nextPartyId());
+    }
+
+    /**
+     * Constructs a new party with the given id, used when restoring saved parties
+     *
+     * @param manager Mini-game manager
+     * @param id Party id
+     */
+    Party(MiniGameManager manager, long id) {
         this.manager = manager;
-        this.players = new HashSet<>();
+        this.id = id;
+        this.players = ConcurrentHashMap.newKeySet();
+        this.onlinePlayers = new OnlineMembers();
         this.moderators = new HashSet<>();
-        this.invitees = new HashSet<>();
+        this.invitees = new HashMap<>();
         this.game = null;
     }
 
+    /**
+     * Gets the id of this party, which is unique among the parties of its manager and is kept when parties
+     * are saved and restored
+     *
+     * @return Party id
+     */
+    public long getId() {
+        return id;
+    }
+
     /**
      * Gets the set of players that are in this party
+     * <p>
+     * The set is backed by a concurrent set, so it may be read from any thread
      *
      * @return Set of players
      */
@@ -38,12 +66,61 @@ public class Party {
     }
 
     /**
-     * Gets a set of online players in this party
+     * Gets a live read-only view of the online players in this party
+     * <p>
+     * The view is kept up to date as players join, quit, are added and are removed, so it should be copied
+     * before changing the players in this party while iterating over it
      *
      * @return Set of online players
      */
     public Set<Player> getOnlinePlayers() {
-        return manager.getOnlinePlayers(players);
+        return onlinePlayers.view();
+    }
+
+    /**
+     * Gets a live read-only view of the online players in this party that is safe to read from any thread
+     *
+     * @return Set of online players
+     */
+    Set<Player> getConcurrentOnlinePlayers() {
+        return onlinePlayers.concurrentView();
+    }
+
+    /**
+     * Sends a broadcast to all the online players in this party
+     *
+     * @param message Broadcast
+     */
+    public void broadcast(Broadcast message) {
+        message.send(onlinePlayers.view());
+    }
+
+    /**
+     * Sends the given lines to all the online players in this party as a single message
+     *
+     * @param lines Lines, which may contain legacy color codes
+     */
+    public void broadcast(String... lines) {
+        broadcast(Broadcast.of(lines));
+    }
+
+    /**
+     * Marks the given player in this party as online
+     *
+     * @param player Player
+     */
+    void setOnline(Player player) {
+        if (players.contains(player.getUniqueId()))
+            onlinePlayers.add(player);
+    }
+
+    /**
+     * Marks the given player in this party as offline
+     *
+     * @param player Player
+     */
+    void setOffline(UUID player) {
+        onlinePlayers.remove(player);
     }
 
     /**
@@ -65,8 +142,15 @@ public class Party {
     public boolean add(UUID player) throws IllegalStateException {
         if (!manager.joinParty(player, this))
             throw new IllegalStateException("Given player is in another party");
-        invitees.remove(player);
-        return players.add(player);
+        if (invitees.remove(player) != null)
+            manager.removeInvite(player, this);
+        if (!players.add(player))
+            return false;
+        manager.journal(PartyJournal.ADD, this, player);
+        Player p = manager.getOnlinePlayer(player);
+        if (p != null)
+            onlinePlayers.add(p);
+        return true;
     }
 
     /**
@@ -77,6 +161,9 @@ public class Party {
      */
     public boolean remove(UUID player) {
         if (players.remove(player)) {
+            moderators.remove(player);
+            onlinePlayers.remove(player);
+            manager.journal(PartyJournal.REMOVE, this, player);
             if (!manager.leaveParty(player)) // this should never be true unless something has gone very wrong
                 manager.getPlugin().getLogger()
                         .warning("Party object vs MiniGameManager mismatch for player " + player);
@@ -85,6 +172,26 @@ public class Party {
         return false;
     }
 
+    /**
+     * Removes all players from this party and withdraws all of its invites
+     *
+     * @return Amount of players that were removed
+     */
+    public int disband() {
+        for (UUID invitee : invitees.keySet()) {
+            manager.removeInvite(invitee, this);
+            manager.journal(PartyJournal.UNINVITE, this, invitee);
+        }
+        invitees.clear();
+
+        int count = 0;
+        for (UUID player : new ArrayList<>(players)) {
+            if (remove(player))
+                count++;
+        }
+        return count;
+    }
+
     /**
      * Checks if the given player is in this party
      *
@@ -124,7 +231,10 @@ public class Party {
     public boolean promote(UUID player) throws IllegalStateException {
         if (!players.contains(player))
             throw new IllegalStateException("Given player is not in this party");
-        return moderators.add(player);
+        if (!moderators.add(player))
+            return false;
+        manager.journal(PartyJournal.PROMOTE, this, player);
+        return true;
     }
 
     /**
@@ -137,7 +247,10 @@ public class Party {
     public boolean demote(UUID player) throws IllegalStateException {
         if (!players.contains(player))
             throw new IllegalStateException("Given player is not in this party");
-        return moderators.remove(player);
+        if (!moderators.remove(player))
+            return false;
+        manager.journal(PartyJournal.DEMOTE, this, player);
+        return true;
     }
 
     /**
@@ -150,7 +263,23 @@ public class Party {
     public boolean invite(UUID player) throws IllegalStateException {
         if (players.contains(player))
             throw new IllegalStateException("Given player is already in this party");
-        return invitees.add(player);
+        return addInvite(player);
+    }
+
+    /**
+     * Invites all the given players to this party at once, skipping players that are already in this party
+     * or already invited
+     *
+     * @param players Players
+     * @return List of players that were newly invited, in the order they were given
+     */
+    public List<UUID> inviteAll(Collection<UUID> players) {
+        ArrayList<UUID> invited = new ArrayList<>();
+        for (UUID player : players) {
+            if (!this.players.contains(player) && addInvite(player))
+                invited.add(player);
+        }
+        return invited;
     }
 
     /**
@@ -163,7 +292,57 @@ public class Party {
     public boolean uninvite(UUID player) throws IllegalStateException {
         if (players.contains(player))
             throw new IllegalStateException("Given player is already in this party");
-        return invitees.remove(player);
+        if (invitees.remove(player) == null)
+            return false;
+        manager.removeInvite(player, this);
+        manager.journal(PartyJournal.UNINVITE, this, player);
+        return true;
+    }
+
+    /**
+     * Records an invite for the given player that expires after the manager's
+     * {@link MiniGameManager#getInviteTimeout() invite timeout}
+     *
+     * @param player Player
+     * @return {@code true} if the player was not already invited
+     */
+    private boolean addInvite(UUID player) {
+        if (invitees.containsKey(player))
+            return false;
+        long timeout = manager.getInviteTimeout();
+        long expiry = timeout > 0 ? manager.getCurrentTick() + timeout : Long.MAX_VALUE;
+        invitees.put(player, expiry);
+        manager.addInvite(player, this);
+        manager.journal(PartyJournal.INVITE, this, player);
+        if (timeout > 0)
+            manager.schedule(timeout, () -> expireInvite(player, expiry));
+        return true;
+    }
+
+    /**
+     * Removes the invite for the given player if it is the invite that expires on the given tick, since the
+     * player may have been uninvited and invited again since it was scheduled
+     *
+     * @param player Player
+     * @param expiry Tick the invite expires on
+     */
+    private void expireInvite(UUID player, long expiry) {
+        Long current = invitees.get(player);
+        if (current != null && current == expiry) {
+            invitees.remove(player);
+            manager.removeInvite(player, this);
+            manager.journal(PartyJournal.UNINVITE, this, player);
+        }
+    }
+
+    /**
+     * Removes the invite for the given player without updating the manager, which has already forgotten it
+     *
+     * @param player Player
+     */
+    void dropInvite(UUID player) {
+        if (invitees.remove(player) != null)
+            manager.journal(PartyJournal.UNINVITE, this, player);
     }
 
     /**
@@ -173,7 +352,7 @@ public class Party {
      * @return {@code true} if the player is invited to this party
      */
     public boolean isInvited(UUID player) {
-        return invitees.contains(player);
+        return invitees.containsKey(player);
     }
 
     /**
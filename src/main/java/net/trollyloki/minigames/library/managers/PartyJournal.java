@@ -0,0 +1,342 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only binary journal of party changes, written on a background thread
+ * <p>
+ * Changes are appended to the journal file as fixed size records, and the writer thread applies them to its
+ * own copy of every party so that it can periodically write a compacted snapshot without involving the main
+ * thread. The snapshot and journal both store a generation number, so a journal that was already compacted
+ * into the snapshot is ignored if the server stops while a new journal is being started
+ */
+class PartyJournal implements Runnable {
+
+    static final byte ADD = 0, REMOVE = 1, PROMOTE = 2, DEMOTE = 3, INVITE = 4, UNINVITE = 5;
+
+    private static final int SNAPSHOT_MAGIC = 0x4D475053, JOURNAL_MAGIC = 0x4D47504A, VERSION = 1;
+    private static final int HEADER_SIZE = 16, RECORD_SIZE = 25;
+    private static final int COMPACT_RECORDS = 65536;
+    private static final long COMPACT_INTERVAL = TimeUnit.MINUTES.toNanos(5);
+
+    /**
+     * Saved state of a single party
+     */
+    static class PartyState {
+
+        final LinkedHashSet<UUID> members = new LinkedHashSet<>();
+        final HashSet<UUID> moderators = new HashSet<>();
+        final LinkedHashSet<UUID> invitees = new LinkedHashSet<>();
+
+    }
+
+    private static class Record {
+
+        private final byte op;
+        private final long party;
+        private final UUID player;
+
+        private Record(byte op, long party, UUID player) {
+            this.op = op;
+            this.party = party;
+            this.player = player;
+        }
+
+    }
+
+    private static final Record CLOSE = new Record((byte) -1, 0, null);
+
+    private final Path snapshotFile, journalFile;
+    private final Logger logger;
+    private final HashMap<Long, PartyState> parties;
+    private final LinkedBlockingQueue<Record> queue;
+    private final ByteBuffer buffer;
+    private long generation = 0;
+    private int records = 0;
+    private long lastSnapshot;
+    private FileChannel channel;
+    private Thread thread;
+
+    /**
+     * Constructs a new party journal that stores its files in the given directory
+     *
+     * @param directory Directory
+     * @param logger Logger for errors on the writer thread
+     */
+    PartyJournal(Path directory, Logger logger) {
+        this.snapshotFile = directory.resolve("parties.snapshot");
+        this.journalFile = directory.resolve("parties.journal");
+        this.logger = logger;
+        this.parties = new HashMap<>();
+        this.queue = new LinkedBlockingQueue<>();
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 2048);
+    }
+
+    /**
+     * Reads the latest snapshot and the journal written after it
+     * <p>
+     * This must be called before the journal is {@link #start() started}
+     *
+     * @return Map of party ids to saved parties
+     * @throws IOException If the files could not be read
+     */
+    Map<Long, PartyState> load() throws IOException {
+        try {
+            read();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Party snapshot " + snapshotFile + " is truncated", e);
+        }
+        return Collections.unmodifiableMap(parties);
+    }
+
+    private void read() throws IOException {
+        if (Files.exists(snapshotFile)) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            if (in.getInt() != SNAPSHOT_MAGIC || in.getInt() != VERSION)
+                throw new IOException("Unrecognized party snapshot " + snapshotFile);
+            generation = in.getLong();
+            for (int count = in.getInt(); count > 0; count--) {
+                PartyState party = new PartyState();
+                parties.put(in.getLong(), party);
+                for (int members = in.getInt(); members > 0; members--) {
+                    UUID player = new UUID(in.getLong(), in.getLong());
+                    party.members.add(player);
+                    if (in.get() != 0)
+                        party.moderators.add(player);
+                }
+                for (int invitees = in.getInt(); invitees > 0; invitees--)
+                    party.invitees.add(new UUID(in.getLong(), in.getLong()));
+            }
+        }
+
+        if (Files.exists(journalFile)) {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+            if (in.remaining() >= HEADER_SIZE && in.getInt() == JOURNAL_MAGIC && in.getInt() == VERSION
+                    && in.getLong() == generation) { // otherwise the journal is already part of the snapshot
+                while (in.remaining() >= RECORD_SIZE) { // a partial record at the end was never fully written
+                    apply(in.get(), in.getLong(), new UUID(in.getLong(), in.getLong()));
+                    records++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the writer thread, which first compacts everything that was loaded into a new snapshot
+     */
+    void start() {
+        lastSnapshot = System.nanoTime();
+        thread = new Thread(this, "MiniGameLibrary Party Journal");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a change to be appended to the journal
+     *
+     * @param op Operation
+     * @param party Party id
+     * @param player Player
+     */
+    void append(byte op, long party, UUID player) {
+        queue.add(new Record(op, party, player));
+    }
+
+    /**
+     * Writes all queued changes, compacts them into a snapshot and stops the writer thread
+     */
+    void close() {
+        queue.add(CLOSE);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        compact();
+        ArrayList<Record> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                Record first = queue.poll(COMPACT_INTERVAL, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+
+            for (Record record : batch) {
+                if (record == CLOSE)
+                    closing = true;
+                else
+                    write(record);
+            }
+            batch.clear();
+            flush();
+
+            if (closing || records >= COMPACT_RECORDS
+                    || (records > 0 && System.nanoTime() - lastSnapshot >= COMPACT_INTERVAL))
+                compact();
+        }
+
+        try {
+            if (channel != null)
+                channel.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to close party journal", e);
+        }
+    }
+
+    private void write(Record record) {
+        if (buffer.remaining() < RECORD_SIZE)
+            flush();
+        buffer.put(record.op).putLong(record.party)
+                .putLong(record.player.getMostSignificantBits()).putLong(record.player.getLeastSignificantBits());
+        apply(record.op, record.party, record.player);
+        records++;
+    }
+
+    private void flush() {
+        if (buffer.position() == 0)
+            return;
+        buffer.flip();
+        try {
+            if (channel == null)
+                throw new IOException("Party journal is not open");
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write party journal, changes will be saved with the next snapshot", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Applies a change to the saved parties
+     *
+     * @param op Operation
+     * @param id Party id
+     * @param player Player
+     */
+    private void apply(byte op, long id, UUID player) {
+        PartyState party = parties.get(id);
+        if (party == null) {
+            if (op != ADD && op != INVITE)
+                return;
+            party = new PartyState();
+            parties.put(id, party);
+        }
+
+        switch (op) {
+            case ADD:
+                party.members.add(player);
+                party.invitees.remove(player);
+                break;
+            case REMOVE:
+                party.members.remove(player);
+                party.moderators.remove(player);
+                if (party.members.isEmpty()) // empty parties are gone for good
+                    parties.remove(id);
+                break;
+            case PROMOTE:
+                party.moderators.add(player);
+                break;
+            case DEMOTE:
+                party.moderators.remove(player);
+                break;
+            case INVITE:
+                party.invitees.add(player);
+                break;
+            case UNINVITE:
+                party.invitees.remove(player);
+                break;
+        }
+    }
+
+    /**
+     * Writes the saved parties to a new snapshot and starts a new empty journal after it
+     */
+    private void compact() {
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            Files.createDirectories(snapshotFile.getParent());
+            long next = generation + 1;
+
+            Path snapshotTemp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(snapshotTemp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer snapshot = ByteBuffer.allocate(snapshotSize());
+                snapshot.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(next).putInt(parties.size());
+                for (Map.Entry<Long, PartyState> entry : parties.entrySet()) {
+                    PartyState party = entry.getValue();
+                    snapshot.putLong(entry.getKey()).putInt(party.members.size());
+                    for (UUID player : party.members) {
+                        snapshot.putLong(player.getMostSignificantBits()).putLong(player.getLeastSignificantBits())
+                                .put((byte) (party.moderators.contains(player) ? 1 : 0));
+                    }
+                    snapshot.putInt(party.invitees.size());
+                    for (UUID player : party.invitees)
+                        snapshot.putLong(player.getMostSignificantBits()).putLong(player.getLeastSignificantBits());
+                }
+                snapshot.flip();
+                while (snapshot.hasRemaining())
+                    out.write(snapshot);
+                out.force(true);
+            }
+            Files.move(snapshotTemp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            generation = next;
+
+            Path journalTemp = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(journalTemp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+                while (header.hasRemaining())
+                    out.write(header);
+                out.force(true);
+            }
+            Files.move(journalTemp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = 0;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to compact party journal", e);
+        }
+        lastSnapshot = System.nanoTime();
+
+        try {
+            if (channel == null)
+                channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to open party journal", e);
+        }
+    }
+
+    private int snapshotSize() {
+        int size = HEADER_SIZE + 4;
+        for (PartyState party : parties.values())
+            size += 8 + 4 + party.members.size() * 17 + 4 + party.invitees.size() * 16;
+        return size;
+    }
+
+}
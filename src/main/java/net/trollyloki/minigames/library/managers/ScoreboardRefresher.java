@@ -0,0 +1,103 @@
+package net.trollyloki.minigames.library.managers;
+
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+
+/**
+ * Queue of players whose scoreboard needs to be reassigned, processed a limited number per tick
+ */
+class ScoreboardRefresher implements Runnable {
+
+    private final MiniGameManager manager;
+    private final LinkedHashSet<UUID> pending;
+    private int limit = 50;
+    private boolean scheduled = false;
+
+    /**
+     * Constructs a new scoreboard refresher
+     *
+     * @param manager Mini-game manager
+     */
+    ScoreboardRefresher(MiniGameManager manager) {
+        this.manager = manager;
+        this.pending = new LinkedHashSet<>();
+    }
+
+    /**
+     * Gets the maximum amount of players refreshed each tick
+     *
+     * @return Limit
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum amount of players refreshed each tick
+     *
+     * @param limit Limit
+     */
+    void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the amount of players waiting to be refreshed
+     *
+     * @return Amount of players
+     */
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Queues the given player to have their scoreboard reassigned
+     *
+     * @param player Player
+     */
+    void mark(UUID player) {
+        if (pending.add(player))
+            schedule();
+    }
+
+    /**
+     * Queues all the given players to have their scoreboards reassigned
+     *
+     * @param players Players
+     */
+    void markAll(Collection<UUID> players) {
+        if (pending.addAll(players))
+            schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            manager.defer(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        Iterator<UUID> iterator = pending.iterator();
+        for (int count = 0; count < limit && iterator.hasNext(); ) {
+            UUID uuid = iterator.next();
+            iterator.remove();
+
+            Game game = manager.getGame(uuid);
+            Player player = game != null ? game.getOnlinePlayer(uuid) : null;
+            if (player == null) // offline players are queued again when they join
+                continue;
+            game.getScoreboard().updateScoreboard(uuid);
+            count++;
+        }
+        if (!pending.isEmpty())
+            schedule();
+    }
+
+}
@@ -0,0 +1,105 @@
+package net.trollyloki.minigames.library.managers;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel that runs tasks after a delay in ticks
+ * <p>
+ * Tasks are placed in the slot of the tick they expire on, so scheduling a task and advancing the wheel by
+ * one tick only touch a single slot instead of every pending task. Tasks cannot be cancelled, so they should
+ * check whether they are still relevant when they run
+ */
+class TimingWheel {
+
+    private static class Entry {
+
+        private final Runnable task;
+        private long rounds;
+        private Entry next;
+
+        private Entry(Runnable task, long rounds) {
+            this.task = task;
+            this.rounds = rounds;
+        }
+
+    }
+
+    private final Entry[] slots;
+    private final int bits;
+    private final int mask;
+    private long tick = 0;
+    private int size = 0;
+
+    /**
+     * Constructs a new timing wheel
+     *
+     * @param bits Base two logarithm of the amount of slots
+     */
+    TimingWheel(int bits) {
+        this.slots = new Entry[1 << bits];
+        this.bits = bits;
+        this.mask = slots.length - 1;
+    }
+
+    /**
+     * Gets the amount of ticks this wheel has advanced
+     *
+     * @return Current tick
+     */
+    long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the amount of tasks that have not run yet
+     *
+     * @return Amount of tasks
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a task to run once this wheel has advanced the given amount of ticks
+     *
+     * @param delay Delay in ticks, which is treated as one if less than one
+     * @param task Task
+     */
+    void schedule(long delay, Runnable task) {
+        delay = Math.max(delay, 1);
+        int slot = (int) ((tick + delay) & mask);
+        Entry entry = new Entry(task, (delay - 1) >>> bits);
+        entry.next = slots[slot];
+        slots[slot] = entry;
+        size++;
+    }
+
+    /**
+     * Advances this wheel by one tick, running the tasks that expire on it
+     * <p>
+     * Tasks scheduled while this is running never run during the same call
+     *
+     * @param handler Handler for exceptions thrown by tasks
+     */
+    void advance(Consumer<? super Throwable> handler) {
+        int slot = (int) (++tick & mask);
+        Entry entry = slots[slot];
+        slots[slot] = null; // detach so tasks scheduled into this slot now wait for its next turn
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.rounds-- > 0) { // not due yet, so keep it for a later turn
+                entry.next = slots[slot];
+                slots[slot] = entry;
+            } else {
+                size--;
+                try {
+                    entry.task.run();
+                } catch (Throwable e) {
+                    handler.accept(e);
+                }
+            }
+            entry = next;
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Represents an axis aligned box of blocks in a world
+ */
+public class BlockRegion {
+
+    private final UUID world;
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    /**
+     * Constructs a new block region containing both corners
+     *
+     * @param world World
+     * @param x1 X coordinate of the first corner
+     * @param y1 Y coordinate of the first corner
+     * @param z1 Z coordinate of the first corner
+     * @param x2 X coordinate of the second corner
+     * @param y2 Y coordinate of the second corner
+     * @param z2 Z coordinate of the second corner
+     */
+    public BlockRegion(World world, int x1, int y1, int z1, int x2, int y2, int z2) {
+        this(world.getUID(), x1, y1, z1, x2, y2, z2);
+    }
+
+    /**
+     * Constructs a new block region containing both corners in the world with the given UUID, which does not
+     * need to be loaded
+     *
+     * @param world World UUID
+     * @param x1 X coordinate of the first corner
+     * @param y1 Y coordinate of the first corner
+     * @param z1 Z coordinate of the first corner
+     * @param x2 X coordinate of the second corner
+     * @param y2 Y coordinate of the second corner
+     * @param z2 Z coordinate of the second corner
+     */
+    public BlockRegion(UUID world, int x1, int y1, int z1, int x2, int y2, int z2) {
+        this.world = world;
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+    }
+
+    /**
+     * Constructs a new block region containing the blocks at both corners
+     *
+     * @param corner1 First corner
+     * @param corner2 Second corner
+     * @throws IllegalArgumentException If the corners are in different worlds
+     */
+    public BlockRegion(Location corner1, Location corner2) throws IllegalArgumentException {
+        this(corner1.getWorld(), corner1.getBlockX(), corner1.getBlockY(), corner1.getBlockZ(),
+                corner2.getBlockX(), corner2.getBlockY(), corner2.getBlockZ());
+        if (corner1.getWorld() != corner2.getWorld())
+            throw new IllegalArgumentException("Corners must be in the same world");
+    }
+
+    /**
+     * Gets the UUID of the world this region is in
+     *
+     * @return World UUID
+     */
+    public UUID getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the minimum X coordinate of this region
+     *
+     * @return X coordinate
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Gets the minimum Y coordinate of this region
+     *
+     * @return Y coordinate
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Gets the minimum Z coordinate of this region
+     *
+     * @return Z coordinate
+     */
+    public int getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * Gets the maximum X coordinate of this region
+     *
+     * @return X coordinate
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Gets the maximum Y coordinate of this region
+     *
+     * @return Y coordinate
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Gets the maximum Z coordinate of this region
+     *
+     * @return Z coordinate
+     */
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Checks if the given block coordinates are in this region
+     *
+     * @param world World
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     * @return {@code true} if the block is in this region
+     */
+    public boolean contains(World world, int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ
+                && world != null && this.world.equals(world.getUID());
+    }
+
+    /**
+     * Checks if the given location is in this region
+     *
+     * @param location Location
+     * @return {@code true} if the location is in this region
+     */
+    public boolean contains(Location location) {
+        return contains(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BlockRegion that = (BlockRegion) o;
+        return minX == that.minX && minY == that.minY && minZ == that.minZ
+                && maxX == that.maxX && maxY == that.maxY && maxZ == that.maxZ && world.equals(that.world);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(world, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    @Override
+    public String toString() {
+        return "BlockRegion{" + world + ", " + minX + ", " + minY + ", " + minZ
+                + " -> " + maxX + ", " + maxY + ", " + maxZ + "}";
+    }
+
+}
@@ -0,0 +1,105 @@
+package net.trollyloki.minigames.library.utils;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Chat message that is rendered once into a single component, so that sending it to many players does not
+ * build the message again and sends every line in one packet
+ */
+public class Broadcast {
+
+    private final BaseComponent component;
+
+    /**
+     * Constructs a new broadcast of the given component
+     *
+     * @param component Component
+     */
+    public Broadcast(BaseComponent component) {
+        this.component = component;
+    }
+
+    /**
+     * Creates a broadcast of the given lines
+     *
+     * @param lines Lines, which may contain legacy color codes
+     * @return Broadcast
+     */
+    public static Broadcast of(String... lines) {
+        TextComponent component = new TextComponent();
+        for (int i = 0; i < lines.length; i++)
+            addLine(component, i > 0, TextComponent.fromLegacyText(lines[i]));
+        return new Broadcast(component);
+    }
+
+    /**
+     * Creates a broadcast of the given lines with a border line above and below them
+     *
+     * @param border Border line, which may contain legacy color codes
+     * @param lines Lines, which may contain legacy color codes
+     * @return Broadcast
+     */
+    public static Broadcast framed(String border, String... lines) {
+        BaseComponent[] borderComponents = TextComponent.fromLegacyText(border);
+        TextComponent component = new TextComponent();
+        addLine(component, false, borderComponents);
+        for (String line : lines)
+            addLine(component, true, TextComponent.fromLegacyText(line));
+        addLine(component, true, borderComponents);
+        return new Broadcast(component);
+    }
+
+    /**
+     * Creates a broadcast of a single line made of the given components with a border line above and below it
+     *
+     * @param border Border line, which may contain legacy color codes
+     * @param line Components of the line
+     * @return Broadcast
+     */
+    public static Broadcast framed(String border, BaseComponent... line) {
+        BaseComponent[] borderComponents = TextComponent.fromLegacyText(border);
+        TextComponent component = new TextComponent();
+        addLine(component, false, borderComponents);
+        addLine(component, true, line);
+        addLine(component, true, borderComponents);
+        return new Broadcast(component);
+    }
+
+    private static void addLine(TextComponent component, boolean newLine, BaseComponent... line) {
+        if (newLine)
+            component.addExtra("\n");
+        for (BaseComponent part : line)
+            component.addExtra(part.duplicate()); // duplicate so that the same components can be added twice
+    }
+
+    /**
+     * Gets the rendered component of this broadcast
+     *
+     * @return Component
+     */
+    public BaseComponent getComponent() {
+        return component;
+    }
+
+    /**
+     * Sends this broadcast to the given recipient
+     *
+     * @param recipient Recipient
+     */
+    public void send(CommandSender recipient) {
+        recipient.spigot().sendMessage(component);
+    }
+
+    /**
+     * Sends this broadcast to all the given recipients
+     *
+     * @param recipients Recipients
+     */
+    public void send(Iterable<? extends CommandSender> recipients) {
+        for (CommandSender recipient : recipients)
+            recipient.spigot().sendMessage(component);
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.*;
+
+/**
+ * Backend that renders to a Bukkit scoreboard
+ */
+class BukkitSidebarBackend implements SidebarBackend {
+
+    private final Scoreboard scoreboard;
+    private final Objective objective;
+    private final Team team;
+
+    /**
+     * Constructs a new Bukkit sidebar backend
+     *
+     * @param manager Scoreboard manager
+     * @param name Name of the objective and team
+     */
+    BukkitSidebarBackend(ScoreboardManager manager, String name) {
+        this.scoreboard = manager.getNewScoreboard();
+        this.objective = scoreboard.registerNewObjective(name, "dummy", name);
+        this.team = scoreboard.registerNewTeam(name);
+        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    @Override
+    public Objective getObjective() {
+        return objective;
+    }
+
+    @Override
+    public Team getTeam() {
+        return team;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        objective.setDisplayName(title);
+    }
+
+    @Override
+    public void setScore(String entry, int score) {
+        objective.getScore(entry).setScore(score);
+    }
+
+    @Override
+    public void resetScore(String entry) {
+        scoreboard.resetScores(entry);
+    }
+
+    @Override
+    public void show(Player player) {
+        player.setScoreboard(scoreboard);
+    }
+
+    @Override
+    public void hide(Player player) {
+        // showing another scoreboard replaces this one
+    }
+
+}
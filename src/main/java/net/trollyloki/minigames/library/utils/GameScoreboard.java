@@ -10,8 +10,14 @@ public class GameScoreboard {
 
     private final MiniGameManager manager;
     private final HashMap<UUID, PlayerScoreboard> scoreboards;
+    private final LinkedHashMap<PlayerScoreboard, Set<UUID>> viewers;
+    private final HashMap<List<String>, PlayerScoreboard> views;
     private final HashMap<UUID, String> names;
+    private final ArrayList<PlayerScoreboard> dirty;
     private boolean nameTagVisibility = true, collisionRule = true;
+    private boolean flushScheduled = false;
+    private boolean shared = false;
+    private ScoreboardSender sender = null;
 
     /**
      * Constructs a new game scoreboard
@@ -21,7 +27,54 @@ public class GameScoreboard {
     public GameScoreboard(MiniGameManager manager) {
         this.manager = manager;
         this.scoreboards = new HashMap<>();
+        this.viewers = new LinkedHashMap<>();
+        this.views = new HashMap<>();
         this.names = new HashMap<>();
+        this.dirty = new ArrayList<>();
+    }
+
+    /**
+     * Checks if players with identical sidebars share a single player scoreboard
+     *
+     * @return {@code true} if shared mode is enabled
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Sets whether players with identical sidebars share a single player scoreboard
+     * <p>
+     * In shared mode, players are given their own copy of a scoreboard only once their title or lines set
+     * through {@link #setTitle(UUID, String)} and {@link #setLines(UUID, List)} diverge from every other
+     * player's, and players whose content becomes identical are merged back onto one scoreboard. This only
+     * affects players added after it is changed
+     *
+     * @param shared {@code true} if shared mode should be enabled
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Gets the sender used by virtual player scoreboards
+     *
+     * @return Possibly null scoreboard sender
+     */
+    public ScoreboardSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Sets the sender used by virtual player scoreboards
+     * <p>
+     * When a sender is set, player scoreboards are {@link PlayerScoreboard#PlayerScoreboard(ScoreboardSender)
+     * virtual} instead of Bukkit scoreboards. This only affects player scoreboards created after it is changed
+     *
+     * @param sender Scoreboard sender, or null to use Bukkit scoreboards
+     */
+    public void setSender(ScoreboardSender sender) {
+        this.sender = sender;
     }
 
     /**
@@ -34,14 +87,129 @@ public class GameScoreboard {
     public boolean add(UUID player, String name) {
         if (scoreboards.containsKey(player))
             return false;
-        scoreboards.put(player, new PlayerScoreboard(manager.getPlugin().getServer().getScoreboardManager()));
+        for (PlayerScoreboard scoreboard : viewers.keySet()) // only the new entry is added to existing teams
+            scoreboard.getTeam().addEntry(name);
         names.put(player, name);
-        setTeamOption(Team.Option.NAME_TAG_VISIBILITY, nameTagVisibility);
-        setTeamOption(Team.Option.COLLISION_RULE, collisionRule);
+
+        assign(player, shared ? getView(PlayerScoreboard.DEFAULT_TITLE, Collections.emptyList()) : createScoreboard());
         updateScoreboard(player);
         return true;
     }
 
+    /**
+     * Adds all the given players to this game scoreboard in a single pass
+     *
+     * @param players Map of players to their names
+     * @return Number of players added
+     */
+    public int addAll(Map<UUID, String> players) {
+        List<String> added = new ArrayList<>();
+        List<UUID> addedPlayers = new ArrayList<>();
+        for (Map.Entry<UUID, String> entry : players.entrySet()) {
+            if (!scoreboards.containsKey(entry.getKey())) {
+                addedPlayers.add(entry.getKey());
+                added.add(entry.getValue());
+            }
+        }
+        if (addedPlayers.isEmpty())
+            return 0;
+
+        for (PlayerScoreboard scoreboard : viewers.keySet()) {
+            Team team = scoreboard.getTeam();
+            for (String name : added)
+                team.addEntry(name);
+        }
+        for (int i = 0; i < addedPlayers.size(); i++)
+            names.put(addedPlayers.get(i), added.get(i));
+
+        for (UUID player : addedPlayers) {
+            assign(player, shared ? getView(PlayerScoreboard.DEFAULT_TITLE, Collections.emptyList()) : createScoreboard());
+            updateScoreboard(player);
+        }
+        return addedPlayers.size();
+    }
+
+    /**
+     * Creates a new player scoreboard with this game scoreboard's team options and entries
+     *
+     * @return Player scoreboard
+     */
+    private PlayerScoreboard createScoreboard() {
+        PlayerScoreboard scoreboard = sender != null ? new PlayerScoreboard(sender)
+                : new PlayerScoreboard(manager.getPlugin().getServer().getScoreboardManager());
+        Team team = scoreboard.getTeam();
+        team.setOption(Team.Option.NAME_TAG_VISIBILITY, status(nameTagVisibility));
+        team.setOption(Team.Option.COLLISION_RULE, status(collisionRule));
+        for (String name : names.values())
+            team.addEntry(name);
+        scoreboard.setDirtyListener(() -> markDirty(scoreboard));
+        return scoreboard;
+    }
+
+    private static Team.OptionStatus status(boolean value) {
+        return value ? Team.OptionStatus.ALWAYS : Team.OptionStatus.NEVER;
+    }
+
+    /**
+     * Gets the key used to find shared scoreboards with the given content
+     *
+     * @param title Title
+     * @param lines Lines
+     * @return Key
+     */
+    private static List<String> key(String title, List<String> lines) {
+        List<String> key = new ArrayList<>(lines.size() + 1);
+        key.add(title);
+        key.addAll(lines);
+        return key;
+    }
+
+    /**
+     * Gets the shared scoreboard with the given content, creating one if needed
+     *
+     * @param title Title
+     * @param lines Lines
+     * @return Player scoreboard
+     */
+    private PlayerScoreboard getView(String title, List<String> lines) {
+        List<String> key = key(title, lines);
+        PlayerScoreboard scoreboard = views.get(key);
+        if (scoreboard == null || !key.equals(key(scoreboard.getTitle(), scoreboard.getLines()))) {
+            scoreboard = createScoreboard();
+            scoreboard.setTitle(title);
+            scoreboard.setLines(lines);
+            views.put(key, scoreboard);
+        }
+        return scoreboard;
+    }
+
+    /**
+     * Makes the given player view the given scoreboard, dropping their old scoreboard if nobody else views it
+     *
+     * @param player Player
+     * @param scoreboard Player scoreboard
+     */
+    private void assign(UUID player, PlayerScoreboard scoreboard) {
+        PlayerScoreboard old = scoreboards.put(player, scoreboard);
+        if (old == scoreboard)
+            return;
+        if (old != null) {
+            Player p = manager.getOnlinePlayer(player);
+            if (p != null)
+                old.hide(p);
+            unassign(player, old);
+        }
+        viewers.computeIfAbsent(scoreboard, s -> new HashSet<>()).add(player);
+    }
+
+    private void unassign(UUID player, PlayerScoreboard scoreboard) {
+        Set<UUID> set = viewers.get(scoreboard);
+        if (set != null && set.remove(player) && set.isEmpty()) {
+            viewers.remove(scoreboard);
+            views.values().remove(scoreboard);
+        }
+    }
+
     /**
      * Removes the given player from this game scoreboard
      *
@@ -49,11 +217,15 @@ public class GameScoreboard {
      * @return {@code true} if the player was removed
      */
     public boolean remove(UUID player) {
-        if (!scoreboards.containsKey(player))
+        PlayerScoreboard old = scoreboards.remove(player);
+        if (old == null)
             return false;
-        scoreboards.remove(player);
+        Player p = manager.getOnlinePlayer(player);
+        if (p != null)
+            old.hide(p);
+        unassign(player, old);
         String name = names.remove(player);
-        for (PlayerScoreboard scoreboard : scoreboards.values())
+        for (PlayerScoreboard scoreboard : viewers.keySet())
             scoreboard.getTeam().removeEntry(name);
         updateScoreboard(player);
         return true;
@@ -69,6 +241,132 @@ public class GameScoreboard {
         return names.get(player);
     }
 
+    /**
+     * Sets the sidebar title of the given player
+     *
+     * @param player Player
+     * @param title Title
+     * @return {@code true} if the player is on this game scoreboard
+     */
+    public boolean setTitle(UUID player, String title) {
+        PlayerScoreboard scoreboard = scoreboards.get(player);
+        if (scoreboard == null)
+            return false;
+        setContent(player, scoreboard, title, scoreboard.getLines());
+        return true;
+    }
+
+    /**
+     * Sets the sidebar lines of the given player
+     *
+     * @param player Player
+     * @param lines Lines
+     * @return {@code true} if the player is on this game scoreboard
+     */
+    public boolean setLines(UUID player, List<String> lines) {
+        PlayerScoreboard scoreboard = scoreboards.get(player);
+        if (scoreboard == null)
+            return false;
+        setContent(player, scoreboard, scoreboard.getTitle(), lines);
+        return true;
+    }
+
+    /**
+     * Sets the sidebar title of every player
+     *
+     * @param title Title
+     */
+    public void setTitle(String title) {
+        setAllContent(title, null);
+    }
+
+    /**
+     * Sets the sidebar lines of every player
+     *
+     * @param lines Lines
+     */
+    public void setLines(List<String> lines) {
+        setAllContent(null, lines);
+    }
+
+    /**
+     * Changes the content of every distinct scoreboard once, merging scoreboards whose content becomes
+     * identical in shared mode
+     *
+     * @param title Title, or null to keep each scoreboard's title
+     * @param lines Lines, or null to keep each scoreboard's lines
+     */
+    private void setAllContent(String title, List<String> lines) {
+        if (!shared) {
+            for (PlayerScoreboard scoreboard : viewers.keySet()) {
+                if (title != null)
+                    scoreboard.setTitle(title);
+                if (lines != null)
+                    scoreboard.setLines(lines);
+            }
+            return;
+        }
+
+        views.clear();
+        List<PlayerScoreboard> duplicates = null;
+        for (PlayerScoreboard scoreboard : viewers.keySet()) {
+            String newTitle = title != null ? title : scoreboard.getTitle();
+            List<String> newLines = lines != null ? lines : scoreboard.getLines();
+            if (views.putIfAbsent(key(newTitle, newLines), scoreboard) != null) { // merged below, so left as is
+                if (duplicates == null)
+                    duplicates = new ArrayList<>();
+                duplicates.add(scoreboard);
+                continue;
+            }
+            scoreboard.setTitle(newTitle);
+            scoreboard.setLines(newLines);
+        }
+        if (duplicates == null)
+            return;
+
+        for (PlayerScoreboard duplicate : duplicates) {
+            PlayerScoreboard target = views.get(key(title != null ? title : duplicate.getTitle(),
+                    lines != null ? lines : duplicate.getLines()));
+            for (UUID player : new ArrayList<>(viewers.get(duplicate))) {
+                assign(player, target);
+                updateScoreboard(player);
+            }
+        }
+    }
+
+    /**
+     * Sets the content of a player's sidebar, moving them to another scoreboard in shared mode
+     *
+     * @param player Player
+     * @param current Player's current scoreboard
+     * @param title Title
+     * @param lines Lines
+     */
+    private void setContent(UUID player, PlayerScoreboard current, String title, List<String> lines) {
+        if (title.equals(current.getTitle()) && current.hasLines(lines))
+            return;
+
+        Set<UUID> sharing = viewers.get(current);
+        if (!shared || sharing == null || sharing.size() == 1) {
+            PlayerScoreboard existing = shared ? views.get(key(title, lines)) : null;
+            if (existing != null && existing != current) { // merge with players that already have this content
+                assign(player, existing);
+                updateScoreboard(player);
+                return;
+            }
+
+            views.values().remove(current); // only viewer, so change it in place
+            current.setTitle(title);
+            current.setLines(lines);
+            if (shared)
+                views.put(key(title, lines), current);
+            return;
+        }
+
+        assign(player, getView(title, lines)); // diverged from the players sharing the scoreboard
+        updateScoreboard(player);
+    }
+
     /**
      * Sets a team option for all scoreboards
      *
@@ -76,13 +374,9 @@ public class GameScoreboard {
      * @param value Value
      */
     private void setTeamOption(Team.Option option, boolean value) {
-        Team.OptionStatus status = value ? Team.OptionStatus.ALWAYS : Team.OptionStatus.NEVER;
-        for (PlayerScoreboard scoreboard : scoreboards.values()) {
-            Team team = scoreboard.getTeam();
-            team.setOption(option, status);
-            for (String name : names.values())
-                team.addEntry(name);
-        }
+        Team.OptionStatus status = status(value);
+        for (PlayerScoreboard scoreboard : viewers.keySet())
+            scoreboard.getTeam().setOption(option, status);
     }
 
     /**
@@ -113,18 +407,51 @@ public class GameScoreboard {
             updateScoreboard(player);
     }
 
+    /**
+     * Queues a player scoreboard that just became dirty to be {@link #flush() flushed} at the end of the
+     * current tick
+     *
+     * @param scoreboard Player scoreboard
+     */
+    private void markDirty(PlayerScoreboard scoreboard) {
+        dirty.add(scoreboard);
+        if (flushScheduled)
+            return;
+        flushScheduled = true;
+        manager.runAfterTick(this::flush);
+    }
+
+    /**
+     * Applies buffered title and line changes of all dirty player scoreboards
+     * <p>
+     * This is done automatically once at the end of each tick in which a player scoreboard was changed, and
+     * only visits the scoreboards that were changed
+     *
+     * @return Number of player scoreboards that were flushed
+     */
+    public int flush() {
+        flushScheduled = false;
+        int count = 0;
+        for (int i = 0; i < dirty.size(); i++) {
+            if (dirty.get(i).flush())
+                count++;
+        }
+        dirty.clear();
+        return count;
+    }
+
     /**
      * Updates a player's scoreboard for this game scoreboard
      *
      * @param player Player
      * @return If the player's scoreboard was updated
      */
-    private boolean updateScoreboard(UUID player) {
+    public boolean updateScoreboard(UUID player) {
         Player p = manager.getOnlinePlayer(player);
         if (p != null) {
             PlayerScoreboard scoreboard = scoreboards.get(player);
             if (scoreboard != null) {
-                p.setScoreboard(scoreboard.getScoreboard());
+                scoreboard.show(p);
                 return true;
             } else {
                 p.setScoreboard(manager.getPlugin().getServer().getScoreboardManager().getMainScoreboard());
@@ -135,7 +462,10 @@ public class GameScoreboard {
     }
 
     /**
-     * Gets the player scoreboard for the given player, creating one if needed
+     * Gets the player scoreboard for the given player
+     * <p>
+     * In {@link #isShared() shared mode} the scoreboard may be viewed by other players too, so per-player
+     * content should be set with {@link #setTitle(UUID, String)} and {@link #setLines(UUID, List)} instead
      *
      * @param player Player
      * @return Player scoreboard
@@ -145,12 +475,12 @@ public class GameScoreboard {
     }
 
     /**
-     * Gets all the player scoreboards for this game scoreboard
+     * Gets all the distinct player scoreboards for this game scoreboard
      *
      * @return Collection of player scoreboards
      */
     public Collection<PlayerScoreboard> getPlayerScoreboards() {
-        return Collections.unmodifiableCollection(scoreboards.values());
+        return Collections.unmodifiableCollection(viewers.keySet());
     }
 
 }
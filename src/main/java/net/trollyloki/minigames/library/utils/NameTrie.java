@@ -0,0 +1,197 @@
+package net.trollyloki.minigames.library.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Case-insensitive prefix tree of names, used to find every value whose name starts with a prefix in time
+ * proportional to the length of the prefix and the names found, instead of the amount of names stored
+ * <p>
+ * Null values are not permitted
+ *
+ * @param <V> Type of value
+ */
+public class NameTrie<V> {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static class Node {
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount = 0;
+        private Object value = null;
+
+        private Node child(char key) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == key)
+                    return children[i];
+            }
+            return null;
+        }
+
+        private Node addChild(char key) {
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            Node child = new Node();
+            keys[childCount] = key;
+            children[childCount++] = child;
+            return child;
+        }
+
+        private void removeChild(Node child) {
+            for (int i = 0; i < childCount; i++) {
+                if (children[i] == child) {
+                    childCount--;
+                    keys[i] = keys[childCount];
+                    children[i] = children[childCount];
+                    children[childCount] = null;
+                    return;
+                }
+            }
+        }
+
+    }
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Associates the given value with the given name
+     *
+     * @param name Name
+     * @param value Value
+     * @return Previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(String name, V value) {
+        if (value == null)
+            throw new NullPointerException("Value cannot be null");
+        String key = normalize(name);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.child(key.charAt(i));
+            node = child != null ? child : node.addChild(key.charAt(i));
+        }
+        Object old = node.value;
+        node.value = value;
+        if (old == null)
+            size++;
+        return (V) old;
+    }
+
+    /**
+     * Gets the value associated with the given name
+     *
+     * @param name Name
+     * @return Possibly null value
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String name) {
+        Node node = find(normalize(name));
+        return node != null ? (V) node.value : null;
+    }
+
+    /**
+     * Removes the value associated with the given name
+     *
+     * @param name Name
+     * @return Removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(String name) {
+        String key = normalize(name);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null)
+                return null;
+        }
+
+        Node node = path[key.length()];
+        Object old = node.value;
+        if (old == null)
+            return null;
+        node.value = null;
+        size--;
+        for (int i = key.length(); i > 0 && path[i].value == null && path[i].childCount == 0; i--)
+            path[i - 1].removeChild(path[i]); // prune branches that no longer lead to a value
+        return (V) old;
+    }
+
+    /**
+     * Removes the value associated with the given name only if it is the given value
+     *
+     * @param name Name
+     * @param value Value
+     * @return {@code true} if the value was removed
+     */
+    public boolean remove(String name, V value) {
+        if (get(name) != value)
+            return false;
+        remove(name);
+        return true;
+    }
+
+    /**
+     * Gets all the values whose names start with the given prefix, ignoring case
+     *
+     * @param prefix Prefix
+     * @return List of values
+     */
+    public List<V> startingWith(String prefix) {
+        return startingWith(prefix, value -> true);
+    }
+
+    /**
+     * Gets all the values whose names start with the given prefix, ignoring case, that match a filter
+     *
+     * @param prefix Prefix
+     * @param filter Filter
+     * @return List of values
+     */
+    public List<V> startingWith(String prefix, Predicate<? super V> filter) {
+        ArrayList<V> values = new ArrayList<>();
+        Node node = find(normalize(prefix));
+        if (node != null)
+            collect(node, filter, values);
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(Node node, Predicate<? super V> filter, List<V> values) {
+        if (node.value != null && filter.test((V) node.value))
+            values.add((V) node.value);
+        for (int i = 0; i < node.childCount; i++)
+            collect(node.children[i], filter, values);
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++)
+            node = node.child(key.charAt(i));
+        return node;
+    }
+
+    /**
+     * Gets the amount of names in this trie
+     *
+     * @return Amount of names
+     */
+    public int size() {
+        return size;
+    }
+
+}
@@ -1,51 +1,119 @@
 package net.trollyloki.minigames.library.utils;
 
 import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.*;
 
 public class PlayerScoreboard {
 
     private static final String NAME = "game";
+    private static final String RESET = ChatColor.RESET.toString();
+    static final String DEFAULT_TITLE = NAME;
 
-    private final Scoreboard scoreboard;
-    private final Objective objective;
-    private ArrayList<String> oldLines;
-    private final Team team;
+    private final SidebarBackend backend;
+
+    private String title = NAME;
+    private boolean titleDirty = false;
+    private String[] lines = new String[0];
+    private int lineCount = 0;
+    private boolean linesDirty = false;
+    private String[] rendered = new String[0], next = new String[0];
+    private int renderedCount = 0;
+    private Runnable dirtyListener = null;
 
     /**
-     * Constructs a new player scoreboard
+     * Constructs a new player scoreboard backed by a Bukkit scoreboard
      *
      * @param manager Scoreboard manager
      */
     public PlayerScoreboard(ScoreboardManager manager) {
-        this.scoreboard = manager.getNewScoreboard();
-        this.oldLines = new ArrayList<>();
-        this.objective = scoreboard.registerNewObjective(NAME, "dummy", NAME);
-        this.team = scoreboard.registerNewTeam(NAME);
-        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+        this.backend = new BukkitSidebarBackend(manager, NAME);
+    }
+
+    /**
+     * Constructs a new virtual player scoreboard, which keeps its sidebar and team in memory and sends
+     * changes to the players it is shown to through the given sender instead of using a Bukkit scoreboard
+     *
+     * @param sender Scoreboard sender
+     */
+    public PlayerScoreboard(ScoreboardSender sender) {
+        this.backend = new VirtualSidebarBackend(sender, NAME);
+    }
+
+    /**
+     * Checks if this scoreboard is virtual
+     *
+     * @return {@code true} if this scoreboard does not use a Bukkit scoreboard
+     */
+    public boolean isVirtual() {
+        return backend.getScoreboard() == null;
     }
 
     /**
      * Gets the Bukkit scoreboard associated with this game scoreboard
      *
-     * @return Scoreboard
+     * @return Scoreboard, or null if this scoreboard is {@link #isVirtual() virtual}
      */
     public Scoreboard getScoreboard() {
-        return scoreboard;
+        return backend.getScoreboard();
     }
 
     /**
      * Gets the objective associated with this scoreboard
      *
-     * @return Objective
+     * @return Objective, or null if this scoreboard is {@link #isVirtual() virtual}
      */
     public Objective getObjective() {
-        return objective;
+        return backend.getObjective();
+    }
+
+    /**
+     * Shows this scoreboard to the given player
+     *
+     * @param player Player
+     */
+    public void show(Player player) {
+        backend.show(player);
+    }
+
+    /**
+     * Stops showing this scoreboard to the given player
+     * <p>
+     * This does nothing for Bukkit scoreboards, since showing another scoreboard replaces them
+     *
+     * @param player Player
+     */
+    public void hide(Player player) {
+        backend.hide(player);
+    }
+
+    /**
+     * Sets the action that is run when this scoreboard first has changes that have not been flushed
+     * <p>
+     * Without a listener, changes are flushed immediately
+     *
+     * @param listener Possibly null listener
+     */
+    void setDirtyListener(Runnable listener) {
+        this.dirtyListener = listener;
+    }
+
+    /**
+     * Checks if this scoreboard has changes that have not been flushed
+     *
+     * @return {@code true} if this scoreboard is dirty
+     */
+    public boolean isDirty() {
+        return titleDirty || linesDirty;
+    }
+
+    private void markDirty(boolean wasDirty) {
+        if (dirtyListener == null)
+            flush();
+        else if (!wasDirty)
+            dirtyListener.run();
     }
 
     /**
@@ -54,43 +122,227 @@ public class PlayerScoreboard {
      * @param title New title
      */
     public void setTitle(String title) {
-        getObjective().setDisplayName(title);
+        if (title.equals(this.title))
+            return;
+        boolean wasDirty = isDirty();
+        this.title = title;
+        this.titleDirty = true;
+        markDirty(wasDirty);
+    }
+
+    /**
+     * Gets the title of this scoreboard, including changes that have not been flushed
+     *
+     * @return Title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the lines on this scoreboard, including changes that have not been flushed
+     *
+     * @return Unmodifiable list of lines
+     */
+    public List<String> getLines() {
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(lines, lineCount)));
+    }
+
+    /**
+     * Checks if the lines on this scoreboard are equal to the given lines
+     *
+     * @param lines Lines
+     * @return {@code true} if the lines are equal
+     */
+    public boolean hasLines(List<String> lines) {
+        if (lines.size() != lineCount)
+            return false;
+        for (int i = 0; i < lineCount; i++) {
+            if (!this.lines[i].equals(lines.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of lines on this scoreboard
+     *
+     * @return Amount of lines
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Sets the lines on this scoreboard
+     * <p>
+     * Changes are applied the next time this scoreboard is {@link #flush() flushed}
+     *
+     * @param lines New lines
+     */
+    public void setLines(List<String> lines) {
+        if (hasLines(lines))
+            return;
+        boolean wasDirty = isDirty();
+        ensureCapacity(lines.size());
+        for (int i = 0; i < lines.size(); i++)
+            this.lines[i] = lines.get(i);
+        for (int i = lines.size(); i < lineCount; i++)
+            this.lines[i] = null;
+        this.lineCount = lines.size();
+        this.linesDirty = true;
+        markDirty(wasDirty);
     }
 
     /**
      * Sets the lines on this scoreboard
      *
      * @param lines New lines
+     * @deprecated Kept for plugins compiled against older versions, use {@link #setLines(List)}
      */
+    @Deprecated
     public void setLines(ArrayList<String> lines) {
+        setLines((List<String>) lines);
+    }
+
+    /**
+     * Sets a single line on this scoreboard, adding empty lines before it if needed
+     * <p>
+     * Changes are applied the next time this scoreboard is {@link #flush() flushed}
+     *
+     * @param index Index of the line, starting from the top
+     * @param text New text
+     * @throws IndexOutOfBoundsException If the index is negative
+     */
+    public void setLine(int index, String text) throws IndexOutOfBoundsException {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("Line index cannot be negative");
+        if (index < lineCount && lines[index].equals(text))
+            return;
+        boolean wasDirty = isDirty();
+        ensureCapacity(index + 1);
+        for (int i = lineCount; i < index; i++)
+            lines[i] = "";
+        lines[index] = text;
+        lineCount = Math.max(lineCount, index + 1);
+        linesDirty = true;
+        markDirty(wasDirty);
+    }
+
+    /**
+     * Removes lines from the bottom of this scoreboard until it has at most the given amount
+     *
+     * @param count Amount of lines to keep
+     */
+    public void truncateLines(int count) {
+        if (count >= lineCount)
+            return;
+        boolean wasDirty = isDirty();
+        for (int i = Math.max(count, 0); i < lineCount; i++)
+            lines[i] = null;
+        lineCount = Math.max(count, 0);
+        linesDirty = true;
+        markDirty(wasDirty);
+    }
 
-        HashMap<String, Integer> add = new HashMap<>();
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            if (add.containsKey(line)) { // if line has a duplicate name add §r
-                while (add.containsKey(line))
-                    line += ChatColor.RESET;
-                lines.set(i, line);
+    private void ensureCapacity(int capacity) {
+        if (lines.length < capacity)
+            lines = Arrays.copyOf(lines, Math.max(capacity, lines.length * 2));
+    }
+
+    /**
+     * Applies changes to the title and lines to the Bukkit scoreboard, or sends them to the players this
+     * scoreboard is shown to if it is {@link #isVirtual() virtual}
+     * <p>
+     * Lines are diffed against the lines that are currently shown using reusable arrays, so only entries
+     * that were added, removed or moved are updated. Duplicate lines reuse the entries they were shown with
+     * before, so only new duplicates need a new entry
+     *
+     * @return {@code true} if there were changes to apply
+     */
+    public boolean flush() {
+        if (!isDirty())
+            return false;
+
+        if (titleDirty) {
+            backend.setTitle(title);
+            titleDirty = false;
+        }
+
+        if (linesDirty) {
+            linesDirty = false;
+            if (next.length < lineCount)
+                next = new String[Math.max(lineCount, next.length * 2)];
+
+            for (int i = 0; i < lineCount; i++) { // entries must be unique, so add §r to duplicates
+                String line = lines[i];
+                int resets = 0;
+                while (indexOfEntry(next, i, line, resets) >= 0)
+                    resets++;
+                next[i] = resets == 0 ? line : entry(line, resets);
+            }
+
+            for (int i = 0; i < renderedCount; i++) {
+                if (indexOf(next, lineCount, rendered[i]) < 0) // line no longer exists so remove it
+                    backend.resetScore(rendered[i]);
+            }
+            for (int i = 0; i < lineCount; i++) {
+                int oldIndex = indexOf(rendered, renderedCount, next[i]);
+                if (oldIndex < 0 || renderedCount - oldIndex != lineCount - i) // line is new or has moved
+                    backend.setScore(next[i], lineCount - i);
             }
-            add.put(line, lines.size() - i);
+
+            String[] swap = rendered; // keep both arrays for the next flush
+            rendered = next;
+            next = swap;
+            for (int i = 0; i < renderedCount; i++)
+                next[i] = null;
+            renderedCount = lineCount;
         }
+        return true;
+    }
 
-        LinkedList<String> remove = new LinkedList<>();
-        for (int i = 0; i < oldLines.size(); i++) {
-            String line = oldLines.get(i);
-            Integer newIndex = add.get(line);
-            if (newIndex == null) // line no longer exists so remove it
-                remove.add(line);
-            else if (newIndex == oldLines.size() - i) // line already exists so don't add it
-                add.remove(line);
+    /**
+     * Gets the entry for a line with the given amount of resets added to it, reusing the shown entry if any
+     *
+     * @param line Line
+     * @param resets Amount of resets
+     * @return Entry
+     */
+    private String entry(String line, int resets) {
+        int index = indexOfEntry(rendered, renderedCount, line, resets);
+        if (index >= 0)
+            return rendered[index];
+        StringBuilder entry = new StringBuilder(line.length() + resets * RESET.length()).append(line);
+        for (int i = 0; i < resets; i++)
+            entry.append(RESET);
+        return entry.toString();
+    }
+
+    private static int indexOfEntry(String[] array, int length, String line, int resets) {
+        for (int i = 0; i < length; i++) {
+            if (isEntry(array[i], line, resets))
+                return i;
         }
+        return -1;
+    }
 
-        oldLines = lines; // update list of old lines
-        for (String line : remove)
-            getScoreboard().resetScores(line);
-        for (Map.Entry<String, Integer> line : add.entrySet())
-            getObjective().getScore(line.getKey()).setScore(line.getValue());
+    private static boolean isEntry(String entry, String line, int resets) {
+        if (entry.length() != line.length() + resets * RESET.length() || !entry.startsWith(line))
+            return false;
+        for (int i = 0; i < resets; i++) {
+            if (!entry.startsWith(RESET, line.length() + i * RESET.length()))
+                return false;
+        }
+        return true;
+    }
 
+    private static int indexOf(String[] array, int length, String value) {
+        for (int i = 0; i < length; i++) {
+            if (array[i].equals(value))
+                return i;
+        }
+        return -1;
     }
 
     /**
@@ -99,7 +351,7 @@ public class PlayerScoreboard {
      * @return Team
      */
     public Team getTeam() {
-        return team;
+        return backend.getTeam();
     }
 
 }
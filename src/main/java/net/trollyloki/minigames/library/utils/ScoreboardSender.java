@@ -0,0 +1,103 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Team;
+
+import java.util.Collection;
+
+/**
+ * Sends client-side scoreboard updates for virtual player scoreboards
+ * <p>
+ * Implementations usually send packets directly, for example through a protocol library, and each method
+ * corresponds to a single update. Virtual scoreboards only call these methods for actual changes
+ */
+public interface ScoreboardSender {
+
+    /**
+     * Creates a sidebar objective for the given player and displays it in the sidebar
+     *
+     * @param player Player
+     * @param objective Objective name
+     * @param title Title
+     */
+    void createObjective(Player player, String objective, String title);
+
+    /**
+     * Changes the title of a sidebar objective for the given player
+     *
+     * @param player Player
+     * @param objective Objective name
+     * @param title Title
+     */
+    void updateObjective(Player player, String objective, String title);
+
+    /**
+     * Removes a sidebar objective for the given player
+     *
+     * @param player Player
+     * @param objective Objective name
+     */
+    void removeObjective(Player player, String objective);
+
+    /**
+     * Sets the score of an entry for the given player
+     *
+     * @param player Player
+     * @param objective Objective name
+     * @param entry Entry
+     * @param score Score
+     */
+    void setScore(Player player, String objective, String entry, int score);
+
+    /**
+     * Removes the score of an entry for the given player
+     *
+     * @param player Player
+     * @param objective Objective name
+     * @param entry Entry
+     */
+    void resetScore(Player player, String objective, String entry);
+
+    /**
+     * Creates a team for the given player, including its options and entries
+     *
+     * @param player Player
+     * @param team Team
+     */
+    void createTeam(Player player, Team team);
+
+    /**
+     * Updates the options of a team for the given player
+     *
+     * @param player Player
+     * @param team Team
+     */
+    void updateTeam(Player player, Team team);
+
+    /**
+     * Adds entries to a team for the given player
+     *
+     * @param player Player
+     * @param team Team
+     * @param entries Entries
+     */
+    void addTeamEntries(Player player, Team team, Collection<String> entries);
+
+    /**
+     * Removes entries from a team for the given player
+     *
+     * @param player Player
+     * @param team Team
+     * @param entries Entries
+     */
+    void removeTeamEntries(Player player, Team team, Collection<String> entries);
+
+    /**
+     * Removes a team for the given player
+     *
+     * @param player Player
+     * @param team Team
+     */
+    void removeTeam(Player player, Team team);
+
+}
@@ -0,0 +1,70 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+/**
+ * Applies the rendered state of a {@link PlayerScoreboard}
+ */
+interface SidebarBackend {
+
+    /**
+     * Gets the Bukkit scoreboard, if this backend uses one
+     *
+     * @return Possibly null scoreboard
+     */
+    Scoreboard getScoreboard();
+
+    /**
+     * Gets the Bukkit objective, if this backend uses one
+     *
+     * @return Possibly null objective
+     */
+    Objective getObjective();
+
+    /**
+     * Gets the team
+     *
+     * @return Team
+     */
+    Team getTeam();
+
+    /**
+     * Sets the title of the sidebar
+     *
+     * @param title Title
+     */
+    void setTitle(String title);
+
+    /**
+     * Sets the score of an entry
+     *
+     * @param entry Entry
+     * @param score Score
+     */
+    void setScore(String entry, int score);
+
+    /**
+     * Removes the score of an entry
+     *
+     * @param entry Entry
+     */
+    void resetScore(String entry);
+
+    /**
+     * Shows the sidebar and team to the given player
+     *
+     * @param player Player
+     */
+    void show(Player player);
+
+    /**
+     * Stops showing the sidebar and team to the given player
+     *
+     * @param player Player
+     */
+    void hide(Player player);
+
+}
@@ -0,0 +1,239 @@
+package net.trollyloki.minigames.library.utils;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Open addressing hash map keyed by the two halves of a {@link UUID}
+ * <p>
+ * Keys are stored as primitive longs in parallel arrays, so entries do not allocate nodes and lookups
+ * never call {@link UUID#equals(Object)}. Null values are not permitted
+ *
+ * @param <V> Type of value
+ */
+public class UUIDMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] mostBits;
+    private long[] leastBits;
+    private Object[] values;
+    private int size = 0;
+
+    /**
+     * Constructs a new empty UUID map
+     */
+    public UUIDMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new empty UUID map that can hold the given amount of entries without resizing
+     *
+     * @param expectedSize Expected amount of entries
+     */
+    public UUIDMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2)
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.mostBits = new long[capacity];
+        this.leastBits = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Finds the slot of the given key
+     *
+     * @param most Most significant bits
+     * @param least Least significant bits
+     * @return Slot index, or the negative of the empty slot it would be inserted at minus one
+     */
+    private int find(long most, long least) {
+        int mask = values.length - 1;
+        int i = hash(most, least) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (mostBits[i] == most && leastBits[i] == least)
+                return i;
+        }
+        return -i - 1;
+    }
+
+    /**
+     * Gets the amount of entries in this map
+     *
+     * @return Size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this map is empty
+     *
+     * @return {@code true} if this map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the value for the given key
+     *
+     * @param most Most significant bits of the key
+     * @param least Least significant bits of the key
+     * @return Possibly null value
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long most, long least) {
+        int i = find(most, least);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    /**
+     * Gets the value for the given key
+     *
+     * @param key Key
+     * @return Possibly null value
+     */
+    public V get(UUID key) {
+        return get(key.getMostSignificantBits(), key.getLeastSignificantBits());
+    }
+
+    /**
+     * Checks if this map has a value for the given key
+     *
+     * @param key Key
+     * @return {@code true} if there is a value
+     */
+    public boolean containsKey(UUID key) {
+        return find(key.getMostSignificantBits(), key.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Sets the value for the given key
+     *
+     * @param key Key
+     * @param value Value
+     * @return Possibly null previous value
+     * @throws NullPointerException If the value is null
+     */
+    public V put(UUID key, V value) throws NullPointerException {
+        return put(key, value, false);
+    }
+
+    /**
+     * Sets the value for the given key if there is not already one
+     *
+     * @param key Key
+     * @param value Value
+     * @return Possibly null existing value
+     * @throws NullPointerException If the value is null
+     */
+    public V putIfAbsent(UUID key, V value) throws NullPointerException {
+        return put(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(UUID key, V value, boolean onlyIfAbsent) {
+        if (value == null)
+            throw new NullPointerException("Value cannot be null");
+        long most = key.getMostSignificantBits(), least = key.getLeastSignificantBits();
+        int i = find(most, least);
+        if (i >= 0) {
+            V old = (V) values[i];
+            if (!onlyIfAbsent)
+                values[i] = value;
+            return old;
+        }
+
+        i = -i - 1;
+        mostBits[i] = most;
+        leastBits[i] = least;
+        values[i] = value;
+        if (++size * 2 > values.length)
+            resize(values.length * 2);
+        return null;
+    }
+
+    /**
+     * Removes the value for the given key
+     *
+     * @param key Key
+     * @return Possibly null removed value
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(UUID key) {
+        int i = find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        if (i < 0)
+            return null;
+        V old = (V) values[i];
+
+        // shift following entries back so that lookups never stop early at the removed slot
+        int mask = values.length - 1;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = hash(mostBits[j], leastBits[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                mostBits[i] = mostBits[j];
+                leastBits[i] = leastBits[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        values[i] = null;
+        size--;
+        return old;
+    }
+
+    /**
+     * Removes all entries from this map
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for each value in this map
+     *
+     * @param action Action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        Object[] values = this.values;
+        for (Object value : values) {
+            if (value != null)
+                action.accept((V) value);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldMost = mostBits, oldLeast = leastBits;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null)
+                continue;
+            int i = hash(oldMost[j], oldLeast[j]) & mask;
+            while (values[i] != null)
+                i = (i + 1) & mask;
+            mostBits[i] = oldMost[j];
+            leastBits[i] = oldLeast[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.scoreboard.*;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Scoreboard returned by {@link VirtualTeam#getScoreboard()}, which only exposes the team of a virtual player
+ * scoreboard
+ * <p>
+ * The sidebar of a virtual player scoreboard is managed through {@link PlayerScoreboard} and is not exposed
+ * as an objective, so this scoreboard has no objectives or scores, and new objectives and teams cannot be
+ * registered on it
+ */
+class VirtualScoreboard implements Scoreboard {
+
+    private final VirtualTeam team;
+
+    /**
+     * Constructs a new virtual scoreboard
+     *
+     * @param team Team
+     */
+    VirtualScoreboard(VirtualTeam team) {
+        this.team = team;
+    }
+
+    @Override
+    @Deprecated
+    public Objective registerNewObjective(String name, String criteria) {
+        throw new UnsupportedOperationException("Virtual scoreboards cannot have objectives registered");
+    }
+
+    @Override
+    public Objective registerNewObjective(String name, String criteria, String displayName) {
+        throw new UnsupportedOperationException("Virtual scoreboards cannot have objectives registered");
+    }
+
+    @Override
+    public Objective registerNewObjective(String name, String criteria, String displayName, RenderType renderType) {
+        throw new UnsupportedOperationException("Virtual scoreboards cannot have objectives registered");
+    }
+
+    @Override
+    public Objective getObjective(String name) {
+        return null;
+    }
+
+    @Override
+    public Set<Objective> getObjectivesByCriteria(String criteria) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<Objective> getObjectives() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Objective getObjective(DisplaySlot slot) {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    public Set<Score> getScores(OfflinePlayer player) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<Score> getScores(String entry) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    @Deprecated
+    public void resetScores(OfflinePlayer player) {
+        // there are no exposed scores to reset
+    }
+
+    @Override
+    public void resetScores(String entry) {
+        // there are no exposed scores to reset
+    }
+
+    @Override
+    @Deprecated
+    public Team getPlayerTeam(OfflinePlayer player) {
+        return getEntryTeam(player.getName());
+    }
+
+    @Override
+    public Team getEntryTeam(String entry) {
+        return team.isRegistered() && team.hasEntry(entry) ? team : null;
+    }
+
+    @Override
+    public Team getTeam(String teamName) {
+        return team.isRegistered() && team.getName().equals(teamName) ? team : null;
+    }
+
+    @Override
+    public Set<Team> getTeams() {
+        return team.isRegistered() ? Collections.singleton(team) : Collections.emptySet();
+    }
+
+    @Override
+    public Team registerNewTeam(String name) {
+        if (getTeam(name) != null)
+            throw new IllegalArgumentException("Team name '" + name + "' is already in use");
+        throw new UnsupportedOperationException("Virtual scoreboards only have a single team");
+    }
+
+    @Override
+    @Deprecated
+    public Set<OfflinePlayer> getPlayers() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Set<String> getEntries() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void clearSlot(DisplaySlot slot) {
+        // the sidebar is managed by the player scoreboard
+    }
+
+}
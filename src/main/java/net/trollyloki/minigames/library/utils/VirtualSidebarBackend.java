@@ -0,0 +1,127 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+import java.util.*;
+
+/**
+ * Backend that keeps the sidebar and team in memory and sends updates to its viewers through a
+ * {@link ScoreboardSender}, without creating a Bukkit scoreboard
+ */
+class VirtualSidebarBackend implements SidebarBackend {
+
+    private final ScoreboardSender sender;
+    private final String name;
+    private final VirtualTeam team;
+    private final LinkedHashMap<String, Integer> scores;
+    private final HashMap<UUID, Player> viewers;
+    private String title;
+
+    /**
+     * Constructs a new virtual sidebar backend
+     *
+     * @param sender Scoreboard sender
+     * @param name Name of the objective and team
+     */
+    VirtualSidebarBackend(ScoreboardSender sender, String name) {
+        this.sender = sender;
+        this.name = name;
+        this.team = new VirtualTeam(this, name);
+        this.scores = new LinkedHashMap<>();
+        this.viewers = new HashMap<>();
+        this.title = name;
+    }
+
+    /**
+     * Gets the scoreboard sender of this backend
+     *
+     * @return Scoreboard sender
+     */
+    ScoreboardSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Gets the online players this backend is shown to
+     *
+     * @return Collection of players
+     */
+    Collection<Player> getViewers() {
+        viewers.values().removeIf(player -> !player.isOnline());
+        return viewers.values();
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        return null;
+    }
+
+    @Override
+    public Objective getObjective() {
+        return null;
+    }
+
+    @Override
+    public Team getTeam() {
+        return team;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        if (title.equals(this.title))
+            return;
+        this.title = title;
+        for (Player viewer : getViewers())
+            sender.updateObjective(viewer, name, title);
+    }
+
+    @Override
+    public void setScore(String entry, int score) {
+        Integer old = scores.put(entry, score);
+        if (old != null && old == score)
+            return;
+        for (Player viewer : getViewers())
+            sender.setScore(viewer, name, entry, score);
+    }
+
+    @Override
+    public void resetScore(String entry) {
+        if (scores.remove(entry) == null)
+            return;
+        for (Player viewer : getViewers())
+            sender.resetScore(viewer, name, entry);
+    }
+
+    @Override
+    public void show(Player player) {
+        Player old = viewers.put(player.getUniqueId(), player);
+        if (old == player)
+            return;
+        if (old != null && old.isOnline()) { // clear the old state before sending it again
+            sender.removeObjective(old, name);
+            if (team.isRegistered())
+                sender.removeTeam(old, team);
+        }
+
+        sender.createObjective(player, name, title);
+        for (Map.Entry<String, Integer> score : scores.entrySet())
+            sender.setScore(player, name, score.getKey(), score.getValue());
+        if (team.isRegistered())
+            sender.createTeam(player, team);
+    }
+
+    @Override
+    public void hide(Player player) {
+        if (viewers.remove(player.getUniqueId()) == null)
+            return;
+        if (player.isOnline()) {
+            sender.removeObjective(player, name);
+            if (team.isRegistered())
+                sender.removeTeam(player, team);
+        }
+    }
+
+}
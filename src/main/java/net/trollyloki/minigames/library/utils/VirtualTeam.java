@@ -0,0 +1,294 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.NameTagVisibility;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+
+import java.util.*;
+
+/**
+ * Team kept in memory by a {@link VirtualSidebarBackend}, which sends its changes to the backend's viewers
+ * <p>
+ * Like Bukkit teams, every method throws an {@link IllegalStateException} once the team is unregistered
+ */
+class VirtualTeam implements Team {
+
+    private final VirtualSidebarBackend backend;
+    private final String name;
+    private final LinkedHashSet<String> entries;
+    private final EnumMap<Option, OptionStatus> options;
+    private String displayName, prefix = "", suffix = "";
+    private ChatColor color = ChatColor.RESET;
+    private boolean friendlyFire = true, seeFriendlyInvisibles = true;
+    private boolean registered = true;
+    private final VirtualScoreboard scoreboard;
+
+    /**
+     * Constructs a new virtual team
+     *
+     * @param backend Backend
+     * @param name Name
+     */
+    VirtualTeam(VirtualSidebarBackend backend, String name) {
+        this.backend = backend;
+        this.name = name;
+        this.displayName = name;
+        this.entries = new LinkedHashSet<>();
+        this.options = new EnumMap<>(Option.class);
+        this.scoreboard = new VirtualScoreboard(this);
+    }
+
+    /**
+     * Checks if this team has not been unregistered
+     *
+     * @return {@code true} if this team is registered
+     */
+    boolean isRegistered() {
+        return registered;
+    }
+
+    private void checkState() throws IllegalStateException {
+        if (!registered)
+            throw new IllegalStateException("Unregistered scoreboard component");
+    }
+
+    private void updated() {
+        for (Player viewer : backend.getViewers())
+            backend.getSender().updateTeam(viewer, this);
+    }
+
+    @Override
+    public String getName() {
+        checkState();
+        return name;
+    }
+
+    @Override
+    public String getDisplayName() {
+        checkState();
+        return displayName;
+    }
+
+    @Override
+    public void setDisplayName(String displayName) {
+        checkState();
+        if (displayName.equals(this.displayName))
+            return;
+        this.displayName = displayName;
+        updated();
+    }
+
+    @Override
+    public String getPrefix() {
+        checkState();
+        return prefix;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        checkState();
+        if (prefix.equals(this.prefix))
+            return;
+        this.prefix = prefix;
+        updated();
+    }
+
+    @Override
+    public String getSuffix() {
+        checkState();
+        return suffix;
+    }
+
+    @Override
+    public void setSuffix(String suffix) {
+        checkState();
+        if (suffix.equals(this.suffix))
+            return;
+        this.suffix = suffix;
+        updated();
+    }
+
+    @Override
+    public ChatColor getColor() {
+        checkState();
+        return color;
+    }
+
+    @Override
+    public void setColor(ChatColor color) {
+        checkState();
+        if (color == this.color)
+            return;
+        this.color = color;
+        updated();
+    }
+
+    @Override
+    public boolean allowFriendlyFire() {
+        checkState();
+        return friendlyFire;
+    }
+
+    @Override
+    public void setAllowFriendlyFire(boolean enabled) {
+        checkState();
+        if (enabled == friendlyFire)
+            return;
+        this.friendlyFire = enabled;
+        updated();
+    }
+
+    @Override
+    public boolean canSeeFriendlyInvisibles() {
+        checkState();
+        return seeFriendlyInvisibles;
+    }
+
+    @Override
+    public void setCanSeeFriendlyInvisibles(boolean enabled) {
+        checkState();
+        if (enabled == seeFriendlyInvisibles)
+            return;
+        this.seeFriendlyInvisibles = enabled;
+        updated();
+    }
+
+    @Override
+    @Deprecated
+    public NameTagVisibility getNameTagVisibility() {
+        checkState();
+        switch (getOption(Option.NAME_TAG_VISIBILITY)) {
+            case NEVER:
+                return NameTagVisibility.NEVER;
+            case FOR_OTHER_TEAMS:
+                return NameTagVisibility.HIDE_FOR_OTHER_TEAMS;
+            case FOR_OWN_TEAM:
+                return NameTagVisibility.HIDE_FOR_OWN_TEAM;
+            default:
+                return NameTagVisibility.ALWAYS;
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void setNameTagVisibility(NameTagVisibility visibility) {
+        checkState();
+        switch (visibility) {
+            case NEVER:
+                setOption(Option.NAME_TAG_VISIBILITY, OptionStatus.NEVER);
+                break;
+            case HIDE_FOR_OTHER_TEAMS:
+                setOption(Option.NAME_TAG_VISIBILITY, OptionStatus.FOR_OTHER_TEAMS);
+                break;
+            case HIDE_FOR_OWN_TEAM:
+                setOption(Option.NAME_TAG_VISIBILITY, OptionStatus.FOR_OWN_TEAM);
+                break;
+            default:
+                setOption(Option.NAME_TAG_VISIBILITY, OptionStatus.ALWAYS);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public Set<OfflinePlayer> getPlayers() {
+        checkState();
+        Set<OfflinePlayer> players = new LinkedHashSet<>();
+        for (String entry : entries)
+            players.add(Bukkit.getOfflinePlayer(entry));
+        return Collections.unmodifiableSet(players);
+    }
+
+    @Override
+    public Set<String> getEntries() {
+        checkState();
+        return Collections.unmodifiableSet(entries);
+    }
+
+    @Override
+    public int getSize() {
+        checkState();
+        return entries.size();
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        checkState();
+        return scoreboard;
+    }
+
+    @Override
+    @Deprecated
+    public void addPlayer(OfflinePlayer player) {
+        checkState();
+        addEntry(player.getName());
+    }
+
+    @Override
+    public void addEntry(String entry) {
+        checkState();
+        if (!entries.add(entry))
+            return;
+        Collection<String> added = Collections.singleton(entry);
+        for (Player viewer : backend.getViewers())
+            backend.getSender().addTeamEntries(viewer, this, added);
+    }
+
+    @Override
+    @Deprecated
+    public boolean removePlayer(OfflinePlayer player) {
+        checkState();
+        return removeEntry(player.getName());
+    }
+
+    @Override
+    public boolean removeEntry(String entry) {
+        checkState();
+        if (!entries.remove(entry))
+            return false;
+        Collection<String> removed = Collections.singleton(entry);
+        for (Player viewer : backend.getViewers())
+            backend.getSender().removeTeamEntries(viewer, this, removed);
+        return true;
+    }
+
+    @Override
+    public void unregister() {
+        checkState();
+        for (Player viewer : backend.getViewers()) // sent first so the sender can still read this team
+            backend.getSender().removeTeam(viewer, this);
+        registered = false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean hasPlayer(OfflinePlayer player) {
+        checkState();
+        return hasEntry(player.getName());
+    }
+
+    @Override
+    public boolean hasEntry(String entry) {
+        checkState();
+        return entries.contains(entry);
+    }
+
+    @Override
+    public OptionStatus getOption(Option option) {
+        checkState();
+        return options.getOrDefault(option, OptionStatus.ALWAYS);
+    }
+
+    @Override
+    public void setOption(Option option, OptionStatus status) {
+        checkState();
+        if (getOption(option) == status)
+            return;
+        options.put(option, status);
+        updated();
+    }
+
+}
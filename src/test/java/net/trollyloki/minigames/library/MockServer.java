@@ -0,0 +1,254 @@
+package net.trollyloki.minigames.library;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * Minimal stand-in for a Bukkit server, plugin and players, built from dynamic proxies
+ * <p>
+ * Methods that are not needed by the tests return {@code null}, zero or {@code false}. The server is installed
+ * as the Bukkit singleton the first time it is requested and is shared by every test
+ */
+public final class MockServer {
+
+    private static final Logger LOGGER = Logger.getLogger("MiniGameLibraryTest");
+    private static final Map<UUID, Player> ONLINE = new ConcurrentHashMap<>();
+    private static final List<Runnable> TIMERS = new CopyOnWriteArrayList<>();
+    private static Server server = null;
+    private static Plugin plugin = null;
+
+    private MockServer() {
+    }
+
+    /**
+     * Creates a proxy of the given interface, answering anything the handler returns null for with a default
+     *
+     * @param type Interface
+     * @param handler Handler
+     * @param <T> Type of interface
+     * @return Proxy
+     */
+    public static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    if (method.getParameterCount() == 0)
+                        return System.identityHashCode(proxy);
+                    break;
+                case "equals":
+                    if (method.getParameterCount() == 1)
+                        return proxy == args[0];
+                    break;
+            }
+            Object value = handler.invoke(proxy, method, args);
+            if (value != null || !method.getReturnType().isPrimitive())
+                return value;
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class)
+                return false;
+            if (returnType == void.class)
+                return null;
+            if (returnType == long.class)
+                return 0L;
+            if (returnType == double.class)
+                return 0.0;
+            if (returnType == float.class)
+                return 0f;
+            if (returnType == char.class)
+                return '\0';
+            if (returnType == byte.class)
+                return (byte) 0;
+            if (returnType == short.class)
+                return (short) 0;
+            return 0;
+        }));
+    }
+
+    /**
+     * Gets the mock server, installing it as the Bukkit server if needed
+     *
+     * @return Server
+     */
+    public static synchronized Server server() {
+        if (server == null) {
+            server = proxy(Server.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getLogger":
+                        return LOGGER;
+                    case "getPluginManager":
+                        return proxy(org.bukkit.plugin.PluginManager.class, (p, m, a) -> null);
+                    case "getScheduler":
+                        return proxy(org.bukkit.scheduler.BukkitScheduler.class, (p, m, a) -> {
+                            if (m.getName().equals("runTaskTimer") && a[1] instanceof Runnable)
+                                TIMERS.add((Runnable) a[1]);
+                            return m.getReturnType() == org.bukkit.scheduler.BukkitTask.class
+                                    ? proxy(org.bukkit.scheduler.BukkitTask.class, (p2, m2, a2) -> null) : null;
+                        });
+                    case "getScoreboardManager":
+                        return scoreboardComponent(org.bukkit.scoreboard.ScoreboardManager.class);
+                    case "getPlayer":
+                        return args[0] instanceof UUID ? ONLINE.get(args[0]) : null;
+                    case "getOfflinePlayer":
+                        return args[0] instanceof String ? offlinePlayer((String) args[0]) : null;
+                    case "isPrimaryThread":
+                        return true;
+                    default:
+                        return method.getReturnType() == String.class ? "test" : null;
+                }
+            });
+            if (Bukkit.getServer() == null)
+                Bukkit.setServer(server);
+        }
+        return server;
+    }
+
+    /**
+     * Creates a scoreboard, objective, team or other scoreboard component that accepts every change and
+     * returns further components from its methods
+     *
+     * @param type Interface
+     * @param <T> Type of interface
+     * @return Scoreboard component
+     */
+    public static <T> T scoreboardComponent(Class<T> type) {
+        return proxy(type, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Set.class)
+                return Collections.emptySet();
+            if (returnType.isInterface() && returnType.getPackage() == type.getPackage())
+                return scoreboardComponent(returnType);
+            return null;
+        });
+    }
+
+    /**
+     * Gets the mock plugin
+     *
+     * @return Plugin
+     */
+    public static synchronized Plugin plugin() {
+        if (plugin == null) {
+            Server server = server();
+            plugin = proxy(Plugin.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getServer":
+                        return server;
+                    case "getLogger":
+                        return LOGGER;
+                    case "getName":
+                    case "toString":
+                        return "MiniGameLibrary";
+                    case "isEnabled":
+                        return true;
+                    default:
+                        return null;
+                }
+            });
+        }
+        return plugin;
+    }
+
+    /**
+     * Creates a player with the given name, which is not online until {@link #join(Player) joined}
+     *
+     * @param name Name
+     * @return Player
+     */
+    public static Player player(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "getDisplayName":
+                case "toString":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                case "isOnline":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * Creates an offline player with the given name
+     *
+     * @param name Name
+     * @return Offline player
+     */
+    public static OfflinePlayer offlinePlayer(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(OfflinePlayer.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "toString":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * Makes the given player online, so that the server finds them by uuid
+     *
+     * @param player Player
+     */
+    public static void join(Player player) {
+        ONLINE.put(player.getUniqueId(), player);
+    }
+
+    /**
+     * Makes the given player offline
+     *
+     * @param uuid Player's uuid
+     */
+    public static void quit(UUID uuid) {
+        ONLINE.remove(uuid);
+    }
+
+    /**
+     * Runs every repeating task that was scheduled once, as if a server tick had passed
+     */
+    public static void tick() {
+        for (Runnable timer : TIMERS)
+            timer.run();
+    }
+
+    /**
+     * Runs every repeating task that was scheduled the given amount of times
+     *
+     * @param ticks Amount of ticks
+     */
+    public static void tick(int ticks) {
+        for (int i = 0; i < ticks; i++)
+            tick();
+    }
+
+    /**
+     * Makes every player offline and forgets every repeating task
+     */
+    public static void reset() {
+        ONLINE.clear();
+        TIMERS.clear();
+    }
+
+}
@@ -0,0 +1,129 @@
+package net.trollyloki.minigames.library.commands;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerNameIndexTest {
+
+    private static final int PLAYERS = 5;
+
+    private final AtomicInteger lastPlayedReads = new AtomicInteger();
+    private final AtomicInteger offlinePlayerScans = new AtomicInteger();
+    private final ArrayDeque<Runnable> asyncTasks = new ArrayDeque<>(), syncTasks = new ArrayDeque<>();
+    private final Map<UUID, OfflinePlayer> players = new HashMap<>();
+    private OfflinePlayer[] joined;
+    private Server server;
+
+    @BeforeEach
+    void setUp() {
+        joined = new OfflinePlayer[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) { // join order is not play order
+            OfflinePlayer player = offlinePlayer("Player" + i, (i * 3) % PLAYERS);
+            joined[i] = player;
+            players.put(player.getUniqueId(), player);
+        }
+
+        BukkitScheduler scheduler = MockServer.proxy(BukkitScheduler.class, (proxy, method, args) -> {
+            if (method.getName().equals("runTaskAsynchronously"))
+                asyncTasks.add((Runnable) args[1]);
+            else if (method.getName().equals("runTask"))
+                syncTasks.add((Runnable) args[1]);
+            return MockServer.proxy(BukkitTask.class, (p, m, a) -> null);
+        });
+        server = MockServer.proxy(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getOnlinePlayers":
+                    return Collections.emptyList();
+                case "getOfflinePlayers":
+                    offlinePlayerScans.incrementAndGet();
+                    return joined.clone();
+                case "getOfflinePlayer":
+                    return players.get((UUID) args[0]);
+                case "getScheduler":
+                    return scheduler;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private OfflinePlayer offlinePlayer(String name, long lastPlayed) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        return MockServer.proxy(OfflinePlayer.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                case "getLastPlayed":
+                    lastPlayedReads.incrementAndGet();
+                    return lastPlayed;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private void build(PlayerNameIndex index) {
+        index.buildAsync(MockServer.proxy(Plugin.class, (proxy, method, args) -> true));
+        asyncTasks.remove().run();
+        syncTasks.remove().run();
+    }
+
+    @Test
+    void unbuiltIndexNeverScans() {
+        PlayerNameIndex index = new PlayerNameIndex(server);
+
+        assertNull(index.getPlayer("Player2"));
+        assertEquals(0, offlinePlayerScans.get());
+    }
+
+    @Test
+    void buildKeepsTheMostRecentPlayers() {
+        PlayerNameIndex index = new PlayerNameIndex(server, 2);
+        build(index);
+
+        assertSame(joined[3], index.getPlayer("player3")); // last played 4
+        assertSame(joined[1], index.getPlayer("PLAYER1")); // last played 3
+        assertNull(index.getPlayer("Player0"));
+        assertNull(index.getPlayer("Player2"));
+
+        assertEquals(1, offlinePlayerScans.get());
+        assertEquals(PLAYERS, lastPlayedReads.get());
+    }
+
+    @Test
+    void asyncBuildFallsBackUntilReady() {
+        PlayerNameIndex index = new PlayerNameIndex(server);
+        index.buildAsync(MockServer.proxy(Plugin.class, (proxy, method, args) -> true));
+
+        assertNull(index.getPlayer("Player2"));
+        assertEquals(0, offlinePlayerScans.get());
+
+        index.put(joined[4]); // joined while building
+        assertSame(joined[4], index.getPlayer("Player4"));
+
+        asyncTasks.remove().run();
+        assertNull(index.getPlayer("Player2"));
+        syncTasks.remove().run();
+
+        assertSame(joined[2], index.getPlayer("Player2"));
+        assertSame(joined[4], index.getPlayer("Player4"));
+        assertEquals(1, offlinePlayerScans.get());
+        assertEquals(PLAYERS, lastPlayedReads.get());
+        assertTrue(asyncTasks.isEmpty() && syncTasks.isEmpty());
+    }
+
+}
@@ -0,0 +1,72 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaIndexTest {
+
+    private final UUID worldId = new UUID(1, 2);
+    private final World world = MockServer.proxy(World.class,
+            (proxy, method, args) -> method.getName().equals("getUID") ? worldId : null);
+    private final BlockRegion huge = new BlockRegion(worldId, -30_000_000, 0, -30_000_000, 30_000_000, 255, 30_000_000);
+    private final BlockRegion small = new BlockRegion(worldId, 0, 0, 0, 40, 10, 40);
+    private ArenaIndex index;
+    private Game large, arena;
+
+    @BeforeEach
+    void setUp() {
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        index = new ArenaIndex();
+        large = new Game(manager) {};
+        arena = new Game(manager) {};
+    }
+
+    @Test
+    void largeRegionsAreNotIndexedByChunk() {
+        assertTrue(ArenaIndex.chunkCount(huge) > ArenaIndex.MAX_INDEXED_CHUNKS);
+        index.addRegion(large, huge);
+        index.addRegion(arena, small);
+
+        assertEquals(new HashSet<>(Arrays.asList(large, arena)), new HashSet<>(Arrays.asList(index.getGames(world, 5, 5))));
+        assertArrayEquals(new Game[] {large}, index.getGames(world, 1_000_000, 5));
+    }
+
+    @Test
+    void mergedLookupsAreReused() {
+        index.addRegion(large, huge);
+        index.addRegion(arena, small);
+
+        Game[] games = index.getGames(world, 5, 5);
+        assertSame(games, index.getGames(world, 10, 10)); // same chunk
+        Game[] outside = index.getGames(world, 1_000_000, 5);
+        assertSame(outside, index.getGames(world, 1_000_000, 5));
+    }
+
+    @Test
+    void changingRegionsInvalidatesMergedLookups() {
+        index.addRegion(large, huge);
+        assertArrayEquals(new Game[] {large}, index.getGames(world, 5, 5));
+
+        index.addRegion(arena, small);
+        assertEquals(2, index.getGames(world, 5, 5).length);
+
+        index.removeRegion(large, huge, Collections.emptyList());
+        assertArrayEquals(new Game[] {arena}, index.getGames(world, 5, 5));
+        assertEquals(0, index.getGames(world, 1_000_000, 5).length);
+
+        index.addRegion(large, huge);
+        index.removeRegion(arena, small, Collections.emptyList());
+        assertArrayEquals(new Game[] {large}, index.getGames(world, 5, 5));
+    }
+
+}
@@ -0,0 +1,83 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatRouterTest {
+
+    private final Player alice = MockServer.player("alice"), bob = MockServer.player("bob"),
+            carol = MockServer.player("carol");
+    private final Set<Player> everyone = new HashSet<>(Arrays.asList(alice, bob, carol));
+    private ChatRouter router;
+
+    @BeforeEach
+    void setUp() {
+        for (Player player : everyone)
+            MockServer.join(player);
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        router = manager.getChatRouter();
+        Party party = new Party(manager);
+        party.add(alice.getUniqueId());
+        party.add(bob.getUniqueId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockServer.reset();
+    }
+
+    private AsyncPlayerChatEvent chat(Player player) {
+        return new AsyncPlayerChatEvent(true, player, "hello", new HashSet<>(everyone));
+    }
+
+    @Test
+    void recipientsAreNarrowedAfterOtherPlugins() {
+        router.setChannel(alice.getUniqueId(), ChatChannel.PARTY);
+        AsyncPlayerChatEvent event = chat(alice);
+
+        router.onAsyncPlayerChat(event);
+        assertTrue(event.getFormat().startsWith(router.getPrefix(ChatChannel.PARTY)));
+        event.setFormat("[Rank] " + event.getFormat()); // formatting plugins run at NORMAL and HIGH
+        event.getRecipients().addAll(everyone);
+
+        router.onAsyncPlayerChatRecipients(event);
+        assertEquals(new HashSet<>(Arrays.asList(alice, bob)), event.getRecipients());
+        assertTrue(event.getFormat().contains(router.getPrefix(ChatChannel.PARTY)));
+        assertFalse(event.isCancelled());
+    }
+
+    @Test
+    void globalChatIsUntouched() {
+        AsyncPlayerChatEvent event = chat(alice);
+        String format = event.getFormat();
+
+        router.onAsyncPlayerChat(event);
+        router.onAsyncPlayerChatRecipients(event);
+        assertEquals(format, event.getFormat());
+        assertEquals(everyone, event.getRecipients());
+    }
+
+    @Test
+    void playersWithoutAPartyFallBackToGlobalChat() {
+        router.setChannel(carol.getUniqueId(), ChatChannel.PARTY);
+        AsyncPlayerChatEvent event = chat(carol);
+        String format = event.getFormat();
+
+        router.onAsyncPlayerChat(event);
+        router.onAsyncPlayerChatRecipients(event);
+        assertEquals(format, event.getFormat());
+        assertEquals(everyone, event.getRecipients());
+        assertEquals(ChatChannel.ALL, router.getChannel(carol.getUniqueId()));
+    }
+
+}
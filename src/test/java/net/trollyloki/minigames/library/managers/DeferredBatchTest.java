@@ -0,0 +1,46 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeferredBatchTest {
+
+    @AfterEach
+    void tearDown() {
+        MockServer.reset();
+    }
+
+    @Test
+    void batchesAreSpreadOverTicks() {
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        List<Integer> done = new ArrayList<>();
+        manager.deferEach(Arrays.asList(1, 2, 3, 4, 5), 2, done::add);
+
+        MockServer.tick();
+        assertEquals(Arrays.asList(1, 2), done);
+        MockServer.tick(2);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), done);
+    }
+
+    @Test
+    void failingItemsDoNotDropTheRest() {
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        List<Integer> done = new ArrayList<>();
+        manager.deferEach(Arrays.asList(1, 2, 3, 4, 5), 2, item -> {
+            if (item % 2 == 0)
+                throw new IllegalStateException("item " + item);
+            done.add(item);
+        });
+
+        MockServer.tick(3);
+        assertEquals(Arrays.asList(1, 3, 5), done);
+    }
+
+}
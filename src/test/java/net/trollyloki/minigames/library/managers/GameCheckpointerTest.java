@@ -0,0 +1,211 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import net.trollyloki.minigames.library.utils.BlockRegion;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCheckpointerTest {
+
+    private static final String TYPE = "test";
+
+    private final UUID player = MockServer.player("player").getUniqueId();
+    private final BlockRegion region = new BlockRegion(new UUID(1, 2), 0, 0, 0, 15, 63, 15);
+    private Path directory;
+    private int created;
+    private boolean enabled = true, failRead = false;
+
+    private class TestGame extends Game {
+
+        private int score = 0;
+
+        TestGame(MiniGameManager manager) {
+            super(manager);
+            created++;
+        }
+
+        @Override
+        protected void writeCheckpoint(DataOutput out) throws IOException {
+            out.writeInt(score);
+        }
+
+        @Override
+        protected void readCheckpoint(DataInput in) throws IOException {
+            if (failRead)
+                throw new IOException("Unreadable state");
+            score = in.readInt();
+        }
+
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoints");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        MockServer.reset();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Saves a checkpoint of a game with a player, a region and some state
+     *
+     * @return Checkpoint file
+     */
+    private Path saveGame() throws IOException {
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        manager.registerCheckpointType(TYPE, TestGame::new);
+        manager.enableCheckpoints(directory.toFile(), 1000);
+
+        TestGame game = new TestGame(manager);
+        game.enableCheckpoints(TYPE);
+        game.setTickInterval(3);
+        game.add(player);
+        game.addRegion(region);
+        game.score = 42;
+        manager.disableCheckpoints();
+        created = 0;
+        return directory.resolve(game.getCheckpointId() + ".checkpoint");
+    }
+
+    /**
+     * Creates a plugin that is disabled once {@link #enabled} is set to {@code false}
+     */
+    private Plugin plugin() {
+        return MockServer.proxy(Plugin.class, (proxy, method, args) -> {
+            if (method.getName().equals("isEnabled"))
+                return enabled;
+            try {
+                return method.invoke(MockServer.plugin(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private List<Game> restore(MiniGameManager manager) throws IOException {
+        manager.registerCheckpointType(TYPE, TestGame::new);
+        manager.enableCheckpoints(directory.toFile(), 1000);
+        try {
+            return manager.restoreCheckpoints();
+        } finally {
+            manager.disableCheckpoints();
+        }
+    }
+
+    @Test
+    void checkpointRoundTrip() throws IOException {
+        Path file = saveGame();
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        List<Game> games = restore(manager);
+
+        assertEquals(1, games.size());
+        TestGame game = (TestGame) games.get(0);
+        assertEquals(file.getFileName().toString(), game.getCheckpointId() + ".checkpoint");
+        assertEquals(3, game.getTickInterval());
+        assertEquals(Collections.singleton(player), game.getPlayers());
+        assertSame(game, manager.getGame(player));
+        assertEquals(Collections.singletonList(region), game.getRegions());
+        assertEquals(42, game.score);
+    }
+
+    @Test
+    void truncatedCheckpointIsKeptAside() throws IOException {
+        Path file = saveGame();
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 6)); // cuts into the game's own state
+
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        assertTrue(restore(manager).isEmpty());
+
+        assertEquals(0, created);
+        assertNull(manager.getGame(player));
+        assertFalse(Files.exists(file));
+        assertArrayEquals(Arrays.copyOf(data, data.length - 6),
+                Files.readAllBytes(file.resolveSibling(file.getFileName() + ".corrupt")));
+    }
+
+    @Test
+    void corruptCountsAreRejected() throws IOException {
+        Path file = saveGame();
+        byte[] data = Files.readAllBytes(file);
+        int players = 4 + 4 + 2 + TYPE.length() + 4 + 1; // offset of the player count
+        data[players] = (byte) 0x7F;
+        Files.write(file, data);
+
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        assertTrue(restore(manager).isEmpty());
+
+        assertEquals(0, created);
+        assertTrue(Files.exists(file.resolveSibling(file.getFileName() + ".corrupt")));
+    }
+
+    @Test
+    void unreadableStateIsKeptAside() throws IOException {
+        Path file = saveGame();
+        byte[] data = Files.readAllBytes(file);
+        failRead = true;
+
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        assertTrue(restore(manager).isEmpty());
+
+        assertNull(manager.getGame(player));
+        assertFalse(Files.exists(file));
+        assertArrayEquals(data, Files.readAllBytes(file.resolveSibling(file.getFileName() + ".corrupt")));
+    }
+
+    @Test
+    void closingWhileDisablingKeepsTheCheckpoint() throws IOException {
+        Path file = saveGame();
+        MiniGameManager manager = new MiniGameManager(plugin());
+        manager.registerCheckpointType(TYPE, TestGame::new);
+        manager.enableCheckpoints(directory.toFile(), 1000);
+        TestGame game = (TestGame) manager.restoreCheckpoints().get(0);
+        game.score = 43;
+
+        enabled = false;
+        game.close();
+        manager.disableCheckpoints();
+        assertTrue(Files.exists(file));
+
+        enabled = true;
+        TestGame restored = (TestGame) restore(new MiniGameManager(MockServer.plugin())).get(0);
+        assertEquals(43, restored.score); // a final checkpoint was saved when closing
+        assertEquals(Collections.singleton(player), restored.getPlayers());
+    }
+
+    @Test
+    void closingDiscardsTheCheckpoint() throws IOException {
+        Path file = saveGame();
+        MiniGameManager manager = new MiniGameManager(MockServer.plugin());
+        manager.registerCheckpointType(TYPE, TestGame::new);
+        manager.enableCheckpoints(directory.toFile(), 1000);
+        manager.restoreCheckpoints().get(0).close();
+        manager.disableCheckpoints();
+
+        assertFalse(Files.exists(file));
+    }
+
+}
@@ -0,0 +1,289 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventBusTest {
+
+    public static class TestEvent extends PlayerEvent implements Cancellable {
+
+        private static final HandlerList HANDLERS = new HandlerList();
+        private boolean cancelled = false;
+
+        TestEvent(Player player) {
+            super(player);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLERS;
+        }
+
+        public static HandlerList getHandlerList() {
+            return HANDLERS;
+        }
+
+    }
+
+    /**
+     * Shares the handler list of its parent, like many Bukkit events do
+     */
+    public static class SubTestEvent extends TestEvent {
+
+        SubTestEvent(Player player) {
+            super(player);
+        }
+
+    }
+
+    private static class Registration {
+
+        private final Class<? extends Event> eventClass;
+        private final Listener listener;
+        private final EventExecutor executor;
+
+        private Registration(Class<? extends Event> eventClass, Listener listener, EventExecutor executor) {
+            this.eventClass = eventClass;
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+    }
+
+    private static class AnnotatedGame extends Game {
+
+        private final List<Event> received = new ArrayList<>();
+
+        AnnotatedGame(MiniGameManager manager) {
+            super(manager);
+        }
+
+        @GameEventHandler
+        private void onTest(TestEvent event) {
+            received.add(event);
+        }
+
+        @GameEventHandler(ignoreCancelled = true)
+        void onSubTest(SubTestEvent event) {
+            received.add(event);
+        }
+
+        List<GameEventSubscription> subscribeAll() {
+            return subscribeAll(MethodHandles.lookup());
+        }
+
+    }
+
+    private static class InvalidGame extends Game {
+
+        InvalidGame(MiniGameManager manager) {
+            super(manager);
+        }
+
+        @GameEventHandler
+        void onTest(TestEvent event, TestEvent other) {
+        }
+
+        List<GameEventSubscription> subscribeAll() {
+            return subscribeAll(MethodHandles.lookup());
+        }
+
+    }
+
+    private final List<Registration> registrations = new ArrayList<>();
+    private final Player player = MockServer.player("player"), other = MockServer.player("other"),
+            outsider = MockServer.player("outsider");
+    private MiniGameManager manager;
+    private Game game, otherGame;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        PluginManager pluginManager = MockServer.proxy(PluginManager.class, (proxy, method, args) -> {
+            if (method.getName().equals("registerEvent"))
+                registrations.add(new Registration((Class<? extends Event>) args[0], (Listener) args[1],
+                        (EventExecutor) args[3]));
+            return null;
+        });
+        Server server = MockServer.proxy(Server.class, (proxy, method, args) -> {
+            if (method.getName().equals("getPluginManager"))
+                return pluginManager;
+            try {
+                return method.invoke(MockServer.server(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        Plugin plugin = MockServer.proxy(Plugin.class, (proxy, method, args) -> {
+            if (method.getName().equals("getServer"))
+                return server;
+            try {
+                return method.invoke(MockServer.plugin(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+
+        manager = new MiniGameManager(plugin);
+        game = new Game(manager) {};
+        game.add(player.getUniqueId());
+        otherGame = new Game(manager) {};
+        otherGame.add(other.getUniqueId());
+        registrations.clear(); // only count the routes of the event bus
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockServer.reset();
+    }
+
+    /**
+     * Calls the event like Bukkit does, passing it to every listener registered to its handler list
+     */
+    private <E extends Event> E call(E event) throws Exception {
+        for (Registration registration : new ArrayList<>(registrations)) {
+            HandlerList handlers = (HandlerList) registration.eventClass.getMethod("getHandlerList").invoke(null);
+            if (handlers == event.getHandlers())
+                registration.executor.execute(registration.listener, event);
+        }
+        return event;
+    }
+
+    private static TestEvent cancelled(TestEvent event) {
+        event.setCancelled(true);
+        return event;
+    }
+
+    @Test
+    void eventsGoToTheGameOfTheirPlayer() throws Exception {
+        List<Event> received = new ArrayList<>(), otherReceived = new ArrayList<>();
+        game.subscribe(TestEvent.class, received::add);
+        otherGame.subscribe(TestEvent.class, otherReceived::add);
+        assertEquals(1, registrations.size());
+
+        TestEvent event = call(new TestEvent(player));
+        TestEvent otherEvent = call(new TestEvent(other));
+        call(new TestEvent(outsider));
+
+        assertEquals(Collections.singletonList(event), received);
+        assertEquals(Collections.singletonList(otherEvent), otherReceived);
+    }
+
+    @Test
+    void routesAreRegisteredOncePerKey() throws Exception {
+        List<Event> received = new ArrayList<>();
+        game.subscribe(TestEvent.class, received::add);
+        game.subscribe(TestEvent.class, received::add);
+        otherGame.subscribe(TestEvent.class, event -> {});
+        assertEquals(1, registrations.size());
+
+        game.subscribe(TestEvent.class, GameEventKey.PLAYER, received::add);
+        assertEquals(1, registrations.size());
+        game.subscribe(TestEvent.class, event -> null, received::add);
+        assertEquals(2, registrations.size());
+
+        TestEvent event = call(new TestEvent(player));
+        assertEquals(Arrays.asList(event, event, event), received);
+    }
+
+    @Test
+    void unsubscribingStopsDispatchAndReleasesTheRoute() throws Exception {
+        List<Event> received = new ArrayList<>(), otherReceived = new ArrayList<>();
+        GameEventSubscription subscription = game.subscribe(TestEvent.class, received::add);
+        GameEventSubscription otherSubscription = otherGame.subscribe(TestEvent.class, otherReceived::add);
+
+        assertTrue(subscription.unsubscribe());
+        assertFalse(subscription.isActive());
+        assertFalse(subscription.unsubscribe());
+        call(new TestEvent(player));
+        TestEvent otherEvent = call(new TestEvent(other));
+        assertTrue(received.isEmpty());
+        assertEquals(Collections.singletonList(otherEvent), otherReceived);
+
+        otherGame.close();
+        assertFalse(otherSubscription.isActive());
+        assertEquals(1, registrations.size());
+
+        game.subscribe(TestEvent.class, received::add); // the released route was dropped, so a new one is registered
+        assertEquals(2, registrations.size());
+    }
+
+    @Test
+    void cancelledEventsCanBeIgnored() throws Exception {
+        List<Event> all = new ArrayList<>(), uncancelled = new ArrayList<>();
+        game.subscribe(TestEvent.class, GameEventKey.PLAYER, all::add, false);
+        game.subscribe(TestEvent.class, GameEventKey.PLAYER, uncancelled::add, true);
+
+        TestEvent cancelled = call(cancelled(new TestEvent(player)));
+        TestEvent event = call(new TestEvent(player));
+
+        assertEquals(Arrays.asList(cancelled, event), all);
+        assertEquals(Collections.singletonList(event), uncancelled);
+    }
+
+    @Test
+    void subclassEventsSharingAHandlerListAreFiltered() throws Exception {
+        List<Event> parent = new ArrayList<>(), child = new ArrayList<>();
+        game.subscribe(TestEvent.class, parent::add);
+        game.subscribe(SubTestEvent.class, child::add);
+
+        TestEvent event = call(new TestEvent(player));
+        SubTestEvent subEvent = call(new SubTestEvent(player));
+
+        assertEquals(Arrays.asList(event, subEvent), parent);
+        assertEquals(Collections.singletonList(subEvent), child);
+    }
+
+    @Test
+    void subscribeAllBindsAnnotatedMethods() throws Exception {
+        AnnotatedGame annotated = new AnnotatedGame(manager);
+        annotated.add(outsider.getUniqueId());
+        assertEquals(2, annotated.subscribeAll().size());
+
+        TestEvent event = call(new TestEvent(outsider));
+        SubTestEvent subEvent = call(new SubTestEvent(outsider));
+        call(cancelled(new SubTestEvent(outsider)));
+
+        assertEquals(Arrays.asList(event, subEvent, subEvent), annotated.received.subList(0, 3));
+        assertEquals(4, annotated.received.size()); // only the handler that does not ignore it gets the cancelled one
+    }
+
+    @Test
+    void subscribeAllRejectsInvalidHandlers() {
+        InvalidGame invalid = new InvalidGame(manager);
+        assertThrows(IllegalArgumentException.class, invalid::subscribeAll);
+        assertThrows(IllegalArgumentException.class, () -> game.subscribeAll(MethodHandles.lookup()));
+    }
+
+}
@@ -0,0 +1,231 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchmakingQueueTest {
+
+    private MiniGameManager manager;
+    private List<Match> matches;
+    private int nextPlayer = 0;
+
+    @BeforeEach
+    void setUp() {
+        manager = new MiniGameManager(MockServer.plugin());
+        matches = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockServer.reset();
+    }
+
+    /**
+     * Creates online players
+     *
+     * @param count Amount of players
+     * @return Player UUIDs
+     */
+    private List<UUID> online(int count) {
+        ArrayList<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Player player = MockServer.player("player" + nextPlayer++);
+            MockServer.join(player);
+            players.add(player.getUniqueId());
+        }
+        return players;
+    }
+
+    /**
+     * Queues the given players as a party, or on their own if there is only one
+     */
+    private void enqueue(MatchmakingQueue queue, List<UUID> players) {
+        if (players.size() == 1) {
+            queue.enqueue(players.get(0));
+            return;
+        }
+        Party party = new Party(manager);
+        for (UUID player : players)
+            party.add(player);
+        queue.enqueue(party);
+    }
+
+    @Test
+    void matchesKeepPartiesTogetherWithinBounds() {
+        MatchmakingQueue queue = manager.createQueue("teams", 4, 8, 2, matches::add);
+        Random random = new Random(1);
+        Map<UUID, List<UUID>> unitOf = new HashMap<>();
+        List<List<UUID>> units = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            List<UUID> unit = online(1 + random.nextInt(4));
+            enqueue(queue, unit);
+            units.add(unit);
+            for (UUID player : unit)
+                unitOf.put(player, unit);
+        }
+
+        Set<UUID> dequeued = new HashSet<>(), offline = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            assertTrue(manager.dequeue(units.get(i).get(0)));
+            dequeued.addAll(units.get(i));
+        }
+        for (int i = 300; i < 400; i++) {
+            MockServer.quit(units.get(i).get(0));
+            offline.addAll(units.get(i));
+        }
+
+        int formed = queue.match();
+        assertEquals(formed, matches.size());
+        assertTrue(formed > 0);
+
+        Set<UUID> matched = new HashSet<>();
+        for (Match match : matches) {
+            assertEquals(2, match.getTeams().size());
+            int total = 0;
+            for (List<UUID> team : match.getTeams()) {
+                assertTrue(team.size() >= 2 && team.size() <= 4, "team size " + team.size());
+                total += team.size();
+                for (UUID player : team) {
+                    assertTrue(matched.add(player), "player matched twice");
+                    assertFalse(dequeued.contains(player), "dequeued player matched");
+                    assertFalse(offline.contains(player), "offline player matched");
+                    assertTrue(team.containsAll(unitOf.get(player)), "party split between teams");
+                }
+            }
+            assertTrue(total >= 4 && total <= 8, "match size " + total);
+        }
+
+        for (UUID player : matched)
+            assertNull(manager.getQueue(player));
+        for (UUID player : offline)
+            assertNull(manager.getQueue(player));
+        int waiting = 0;
+        for (List<UUID> unit : units) {
+            if (!dequeued.contains(unit.get(0)) && !offline.contains(unit.get(0)) && !matched.contains(unit.get(0))) {
+                assertSame(queue, manager.getQueue(unit.get(0)));
+                waiting += unit.size();
+            }
+        }
+        assertEquals(waiting, queue.size());
+        assertTrue(waiting < 4);
+    }
+
+    @Test
+    void queueingTwiceIsRejected() {
+        MatchmakingQueue queue = manager.createQueue("doubles", 4, 4, 2, matches::add);
+        List<UUID> party = online(2);
+        enqueue(queue, party);
+
+        assertThrows(IllegalStateException.class, () -> queue.enqueue(party.get(1)));
+        assertThrows(IllegalStateException.class,
+                () -> manager.createQueue("duels", 2, 2, 2, matches::add).enqueue(party.get(0)));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void partiesLargerThanATeamAreRejected() {
+        MatchmakingQueue queue = manager.createQueue("duels", 2, 2, 2, matches::add);
+        List<UUID> party = online(2);
+
+        assertThrows(IllegalArgumentException.class, () -> enqueue(queue, party));
+        assertEquals(0, queue.size());
+        assertNull(manager.getQueue(party.get(0)));
+    }
+
+    @Test
+    void shortfallKeepsUnitsQueued() {
+        MatchmakingQueue queue = manager.createQueue("full", 8, 8, 2, matches::add);
+        List<UUID> party = online(3), solos = online(5);
+        enqueue(queue, party);
+        for (int i = 0; i < 3; i++)
+            queue.enqueue(solos.get(i));
+
+        assertEquals(0, queue.match());
+        assertEquals(6, queue.size());
+
+        queue.enqueue(solos.get(3));
+        queue.enqueue(solos.get(4));
+        assertEquals(1, queue.match());
+        assertEquals(0, queue.size());
+
+        List<List<UUID>> teams = matches.get(0).getTeams();
+        assertEquals(4, teams.get(0).size());
+        assertEquals(4, teams.get(1).size());
+        assertTrue(teams.get(0).containsAll(party));
+    }
+
+    @Test
+    void shortfallKeepsQueueOrder() {
+        MatchmakingQueue queue = manager.createQueue("duels", 2, 2, 2, matches::add);
+        List<UUID> solos = online(3);
+        queue.enqueue(solos.get(0));
+        assertEquals(0, queue.match());
+
+        queue.enqueue(solos.get(1));
+        queue.enqueue(solos.get(2));
+        assertEquals(1, queue.match());
+        assertEquals(Arrays.asList(solos.subList(0, 1), solos.subList(1, 2)), matches.get(0).getTeams());
+        assertTrue(queue.contains(solos.get(2)));
+    }
+
+    @Test
+    void longestWaitingUnitIsMatchedFirst() {
+        MatchmakingQueue queue = manager.createQueue("squads", 8, 8, 2, matches::add);
+        List<UUID> solo = online(1), trio = online(3), first = online(4), second = online(4);
+        enqueue(queue, solo);
+        enqueue(queue, trio);
+        enqueue(queue, first);
+        enqueue(queue, second);
+
+        assertEquals(1, queue.match());
+        List<List<UUID>> teams = matches.get(0).getTeams();
+        assertTrue(teams.get(0).containsAll(solo) && teams.get(0).containsAll(trio));
+        assertEquals(new HashSet<>(first), new HashSet<>(teams.get(1)));
+        assertEquals(4, queue.size());
+        assertTrue(queue.contains(second.get(0)));
+    }
+
+    @Test
+    void largestUnitsAreMatchedWhenTheOldestCannotBe() {
+        MatchmakingQueue queue = manager.createQueue("squads", 8, 8, 2, matches::add);
+        List<UUID> solo = online(1), first = online(4), second = online(4);
+        enqueue(queue, solo);
+        enqueue(queue, first);
+        enqueue(queue, second);
+
+        assertEquals(1, queue.match());
+        List<List<UUID>> teams = matches.get(0).getTeams();
+        assertEquals(new HashSet<>(first), new HashSet<>(teams.get(0)));
+        assertEquals(new HashSet<>(second), new HashSet<>(teams.get(1)));
+        assertTrue(queue.contains(solo.get(0)));
+    }
+
+    @Test
+    void failedMatchesAreQueuedAgain() {
+        MatchmakingQueue queue = manager.createQueue("duels", 2, 2, 2, match -> {
+            if (matches.add(match) && matches.size() == 1)
+                throw new IllegalStateException("No arena available");
+        });
+        List<UUID> solos = online(3);
+        for (UUID solo : solos)
+            queue.enqueue(solo);
+
+        assertEquals(0, queue.match());
+        assertEquals(1, matches.size());
+        assertEquals(3, queue.size());
+        for (UUID solo : solos)
+            assertSame(queue, manager.getQueue(solo));
+
+        assertEquals(1, queue.match());
+        assertEquals(matches.get(0).getTeams(), matches.get(1).getTeams()); // kept their place
+        assertTrue(queue.contains(solos.get(2)));
+    }
+
+}
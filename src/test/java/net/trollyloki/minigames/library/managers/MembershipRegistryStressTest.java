@@ -0,0 +1,153 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves players in and out of parties and games on one thread while other threads query the
+ * {@link MembershipRegistry}, like async chat handlers do
+ */
+public class MembershipRegistryStressTest {
+
+    private static final int PLAYERS = 512, PARTIES = 32, GAMES = 16, READERS = 4, WRITES = 200_000;
+
+    private MiniGameManager manager;
+    private UUID[] players;
+    private Party[] parties;
+    private Game[] games;
+    private Map<UUID, Integer> index;
+    private volatile boolean done;
+
+    @BeforeEach
+    void setUp() {
+        manager = new MiniGameManager(MockServer.plugin());
+        players = new UUID[PLAYERS];
+        index = new HashMap<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            Player player = MockServer.player("player" + i);
+            players[i] = player.getUniqueId();
+            index.put(players[i], i);
+            if (i % 2 == 0) // half of the players are online so the online views change too
+                MockServer.join(player);
+        }
+        parties = new Party[PARTIES];
+        for (int i = 0; i < PARTIES; i++)
+            parties[i] = new Party(manager);
+        games = new Game[GAMES];
+        for (int i = 0; i < GAMES; i++)
+            games[i] = new Game(manager) {};
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockServer.reset();
+    }
+
+    /**
+     * Each player only ever joins one particular party and game, so readers can tell if they ever see a
+     * player in the wrong one
+     */
+    private Party partyOf(int player) {
+        return parties[player % PARTIES];
+    }
+
+    private Game gameOf(int player) {
+        return games[player % GAMES];
+    }
+
+    private int indexOf(UUID player) {
+        return index.get(player); // only read by the reader threads after it is filled
+    }
+
+    @Test
+    void readersNeverSeeInconsistentMembership() throws InterruptedException {
+        MembershipRegistry registry = manager.getMembership();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch started = new CountDownLatch(READERS);
+        Thread[] readers = new Thread[READERS];
+
+        for (int r = 0; r < READERS; r++) {
+            readers[r] = new Thread(() -> {
+                started.countDown();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (!done) {
+                        int i = random.nextInt(PLAYERS);
+                        UUID player = players[i];
+
+                        Party party = registry.getParty(player);
+                        assertTrue(party == null || party == partyOf(i), "player is in the wrong party");
+                        for (UUID member : registry.getPartyMembers(player))
+                            assertSame(partyOf(i), partyOf(indexOf(member)), "party has a member of another party");
+                        for (Player member : registry.getOnlinePartyMembers(player))
+                            assertSame(partyOf(i), partyOf(indexOf(member.getUniqueId())));
+
+                        Game game = registry.getGame(player);
+                        assertTrue(game == null || game == gameOf(i), "player is in the wrong game");
+                        for (UUID member : registry.getGameMembers(player))
+                            assertSame(gameOf(i), gameOf(indexOf(member)), "game has a member of another game");
+                        for (Player member : registry.getOnlineGameMembers(player))
+                            assertSame(gameOf(i), gameOf(indexOf(member.getUniqueId())));
+
+                        registry.inParty(player);
+                        registry.inGame(player);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "Membership reader " + r);
+            readers[r].start();
+        }
+
+        started.await();
+        try {
+            Random random = new Random(15);
+            for (int w = 0; w < WRITES; w++) { // this thread plays the part of the main thread
+                int i = random.nextInt(PLAYERS);
+                if (random.nextBoolean()) {
+                    if (manager.inParty(players[i]))
+                        partyOf(i).remove(players[i]);
+                    else
+                        partyOf(i).add(players[i]);
+                } else {
+                    if (manager.inGame(players[i]))
+                        gameOf(i).remove(players[i]);
+                    else
+                        gameOf(i).add(players[i]);
+                }
+            }
+        } finally {
+            done = true;
+        }
+        for (Thread reader : readers)
+            reader.join();
+
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " reader(s) failed");
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+
+        for (int i = 0; i < PLAYERS; i++) { // once writes stop, the registry matches the manager exactly
+            UUID player = players[i];
+            assertSame(manager.getParty(player), registry.getParty(player));
+            assertSame(manager.getGame(player), registry.getGame(player));
+            assertEquals(manager.inParty(player), partyOf(i).getPlayers().contains(player));
+            assertEquals(manager.inGame(player), gameOf(i).getPlayers().contains(player));
+            boolean online = i % 2 == 0;
+            assertEquals(manager.inParty(player) && online,
+                    registry.getOnlinePartyMembers(player).stream().anyMatch(p -> p.getUniqueId().equals(player)));
+        }
+    }
+
+}
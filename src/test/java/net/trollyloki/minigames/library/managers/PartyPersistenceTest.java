@@ -0,0 +1,126 @@
+package net.trollyloki.minigames.library.managers;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartyPersistenceTest {
+
+    private static final Logger LOGGER = Logger.getLogger("PartyPersistenceTest");
+
+    private final Player leader = MockServer.player("leader"), member = MockServer.player("member");
+    private final UUID invitee = UUID.nameUUIDFromBytes(new byte[] {1}), other = UUID.nameUUIDFromBytes(new byte[] {2});
+    private Path directory;
+    private MiniGameManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("parties");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (manager != null)
+            manager.disablePersistence();
+        MockServer.reset();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Saves a party with the leader as moderator, the member and an invite
+     */
+    private void saveParty() throws IOException {
+        PartyJournal journal = new PartyJournal(directory, LOGGER);
+        assertTrue(journal.load().isEmpty());
+        journal.start();
+        journal.append(PartyJournal.ADD, 1, leader.getUniqueId());
+        journal.append(PartyJournal.PROMOTE, 1, leader.getUniqueId());
+        journal.append(PartyJournal.ADD, 1, member.getUniqueId());
+        journal.append(PartyJournal.INVITE, 1, invitee);
+        journal.append(PartyJournal.ADD, 2, other);
+        journal.append(PartyJournal.REMOVE, 2, other);
+        journal.close();
+    }
+
+    @Test
+    void journalRestoresPartiesAndIgnoresATornRecord() throws IOException {
+        saveParty();
+
+        ByteBuffer tail = ByteBuffer.allocate(25 + 10); // one whole record, then part of the next one
+        tail.put(PartyJournal.ADD).putLong(3).putLong(other.getMostSignificantBits()).putLong(other.getLeastSignificantBits());
+        tail.put(PartyJournal.ADD).putLong(3).put((byte) 7);
+        Files.write(directory.resolve("parties.journal"), tail.array(), StandardOpenOption.APPEND);
+
+        Map<Long, PartyJournal.PartyState> parties = new PartyJournal(directory, LOGGER).load();
+        assertEquals(new HashSet<>(Arrays.asList(1L, 3L)), parties.keySet());
+
+        PartyJournal.PartyState party = parties.get(1L);
+        assertEquals(Arrays.asList(leader.getUniqueId(), member.getUniqueId()), new ArrayList<>(party.members));
+        assertEquals(Collections.singleton(leader.getUniqueId()), party.moderators);
+        assertEquals(Collections.singleton(invitee), party.invitees);
+        assertEquals(Collections.singleton(other), parties.get(3L).members);
+    }
+
+    @Test
+    void restoredOfflinePlayersKeepTheirPartyUntilTheyQuitAgain() throws IOException {
+        saveParty();
+        MockServer.join(leader);
+        manager = new MiniGameManager(MockServer.plugin());
+        manager.setPartyGracePeriod(20);
+        assertEquals(1, manager.enablePersistence(directory.toFile()));
+
+        Party party = manager.getParty(leader.getUniqueId());
+        assertNotNull(party);
+        assertTrue(party.isModerator(leader.getUniqueId()));
+        MockServer.tick(100);
+        assertSame(party, manager.getParty(member.getUniqueId()));
+
+        MockServer.join(member);
+        manager.onPlayerJoin(new PlayerJoinEvent(member, null));
+        MockServer.quit(member.getUniqueId());
+        manager.onPlayerQuit(new PlayerQuitEvent(member, null));
+        MockServer.tick(19);
+        assertSame(party, manager.getParty(member.getUniqueId()));
+        MockServer.tick();
+        assertNull(manager.getParty(member.getUniqueId()));
+        assertSame(party, manager.getParty(leader.getUniqueId()));
+    }
+
+    @Test
+    void restoreGracePeriodEvictsRestoredPlayers() throws IOException {
+        saveParty();
+        MockServer.join(leader);
+        manager = new MiniGameManager(MockServer.plugin());
+        manager.setPartyGracePeriod(20);
+        manager.enablePersistence(directory.toFile());
+        Party party = manager.getParty(leader.getUniqueId());
+
+        MockServer.tick(10);
+        manager.setRestoreGracePeriod(50);
+        MockServer.tick(49);
+        assertSame(party, manager.getParty(member.getUniqueId()));
+        MockServer.tick();
+        assertNull(manager.getParty(member.getUniqueId()));
+        assertSame(party, manager.getParty(leader.getUniqueId()));
+    }
+
+}
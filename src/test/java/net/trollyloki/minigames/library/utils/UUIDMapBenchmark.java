@@ -0,0 +1,102 @@
+package net.trollyloki.minigames.library.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UUIDMap} against the {@link HashMap} it replaced for party and game membership lookups
+ * <p>
+ * Lookups use copies of the stored keys, like the uuids of event players, so that {@link HashMap} has to
+ * call {@link UUID#equals(Object)}. Run with {@code mvn test-compile} followed by this class's main method
+ * on the test classpath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDMapBenchmark {
+
+    @Param({"5000", "50000"})
+    public int size;
+
+    private UUIDMap<Object> uuidMap;
+    private HashMap<UUID, Object> hashMap;
+    private UUID[] present, absent;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(size);
+        uuidMap = new UUIDMap<>();
+        hashMap = new HashMap<>();
+        present = new UUID[size];
+        absent = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            UUID key = new UUID(random.nextLong(), random.nextLong());
+            uuidMap.put(key, key);
+            hashMap.put(key, key);
+            present[i] = new UUID(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            absent[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+    }
+
+    private int next() {
+        int i = index;
+        index = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Object uuidMapGetHit() {
+        return uuidMap.get(present[next()]);
+    }
+
+    @Benchmark
+    public Object hashMapGetHit() {
+        return hashMap.get(present[next()]);
+    }
+
+    @Benchmark
+    public Object uuidMapGetMiss() {
+        return uuidMap.get(absent[next()]);
+    }
+
+    @Benchmark
+    public Object hashMapGetMiss() {
+        return hashMap.get(absent[next()]);
+    }
+
+    /**
+     * Removes and re-adds an entry, like a player leaving one game and joining another
+     */
+    @Benchmark
+    public Object uuidMapRemovePut() {
+        UUID key = present[next()];
+        Object value = uuidMap.remove(key);
+        return uuidMap.put(key, value);
+    }
+
+    /**
+     * Removes and re-adds an entry, like a player leaving one game and joining another
+     */
+    @Benchmark
+    public Object hashMapRemovePut() {
+        UUID key = present[next()];
+        Object value = hashMap.remove(key);
+        return hashMap.put(key, value);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UUIDMapBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
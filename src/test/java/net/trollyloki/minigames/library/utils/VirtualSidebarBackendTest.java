@@ -0,0 +1,261 @@
+package net.trollyloki.minigames.library.utils;
+
+import net.trollyloki.minigames.library.MockServer;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the updates virtual player scoreboards send through a recording {@link ScoreboardSender}
+ */
+public class VirtualSidebarBackendTest {
+
+    /**
+     * Sender that records every update as a line of text
+     */
+    private static class RecordingSender implements ScoreboardSender {
+
+        private final List<String> calls = new ArrayList<>();
+        private final List<String> entries = new ArrayList<>();
+
+        private void record(String call, Player player, Object... args) {
+            StringBuilder builder = new StringBuilder(call).append(' ').append(player.getName());
+            for (Object arg : args)
+                builder.append(' ').append(arg instanceof Team ? ((Team) arg).getName() : arg);
+            calls.add(builder.toString());
+        }
+
+        @Override
+        public void createObjective(Player player, String objective, String title) {
+            record("createObjective", player, objective, title);
+        }
+
+        @Override
+        public void updateObjective(Player player, String objective, String title) {
+            record("updateObjective", player, objective, title);
+        }
+
+        @Override
+        public void removeObjective(Player player, String objective) {
+            record("removeObjective", player, objective);
+        }
+
+        @Override
+        public void setScore(Player player, String objective, String entry, int score) {
+            record("setScore", player, objective, entry, score);
+            entries.add(entry);
+        }
+
+        @Override
+        public void resetScore(Player player, String objective, String entry) {
+            record("resetScore", player, objective, entry);
+        }
+
+        @Override
+        public void createTeam(Player player, Team team) {
+            record("createTeam", player, team, team.getEntries());
+        }
+
+        @Override
+        public void updateTeam(Player player, Team team) {
+            record("updateTeam", player, team);
+        }
+
+        @Override
+        public void addTeamEntries(Player player, Team team, Collection<String> entries) {
+            record("addTeamEntries", player, team, entries);
+        }
+
+        @Override
+        public void removeTeamEntries(Player player, Team team, Collection<String> entries) {
+            record("removeTeamEntries", player, team, entries);
+        }
+
+        @Override
+        public void removeTeam(Player player, Team team) {
+            record("removeTeam", player, team);
+        }
+
+    }
+
+    private RecordingSender sender;
+    private PlayerScoreboard scoreboard;
+    private Player alice, bob;
+
+    @BeforeAll
+    static void setServer() {
+        MockServer.server(); // getPlayers() looks up offline players through Bukkit
+    }
+
+    @BeforeEach
+    void setUp() {
+        sender = new RecordingSender();
+        scoreboard = new PlayerScoreboard(sender);
+        alice = MockServer.player("alice");
+        bob = MockServer.player("bob");
+    }
+
+    @Test
+    void showSendsTheCurrentState() {
+        scoreboard.setTitle("Title");
+        scoreboard.setLines(Arrays.asList("a", "b"));
+        scoreboard.getTeam().addEntry("alice");
+        assertTrue(sender.calls.isEmpty(), "nothing is sent before the scoreboard is shown");
+
+        scoreboard.show(alice);
+        assertEquals(Arrays.asList(
+                "createObjective alice game Title",
+                "setScore alice game a 2",
+                "setScore alice game b 1",
+                "createTeam alice game [alice]"), sender.calls);
+    }
+
+    @Test
+    void onlyChangedLinesAreSent() {
+        scoreboard.setLines(Arrays.asList("a", "b", "c"));
+        scoreboard.show(alice);
+        sender.calls.clear();
+
+        scoreboard.setLines(Arrays.asList("a", "b", "d"));
+        assertEquals(Arrays.asList("resetScore alice game c", "setScore alice game d 1"), sender.calls);
+
+        sender.calls.clear();
+        scoreboard.setLine(0, "e");
+        assertEquals(Arrays.asList("resetScore alice game a", "setScore alice game e 3"), sender.calls);
+    }
+
+    @Test
+    void duplicateLinesReuseTheirEntries() {
+        String reset = ChatColor.RESET.toString();
+        scoreboard.setLines(Arrays.asList("x", "x", "x"));
+        scoreboard.show(alice);
+        assertEquals(Arrays.asList("x", "x" + reset, "x" + reset + reset), sender.entries);
+        String shown = sender.entries.get(1);
+        sender.calls.clear();
+        sender.entries.clear();
+
+        scoreboard.setLines(Arrays.asList("x", "x", "y"));
+        assertEquals(Arrays.asList("resetScore alice game x" + reset + reset, "setScore alice game y 1"),
+                sender.calls);
+
+        scoreboard.setLines(Arrays.asList("y", "x", "x"));
+        assertEquals(Arrays.asList("y", "x", "x" + reset), sender.entries.subList(1, 4));
+        assertSame(shown, sender.entries.get(3));
+    }
+
+    @Test
+    void unchangedContentSendsNothing() {
+        scoreboard.setTitle("Title");
+        scoreboard.setLines(Arrays.asList("a", "b"));
+        scoreboard.show(alice);
+        sender.calls.clear();
+
+        scoreboard.setTitle("Title");
+        scoreboard.setLines(Arrays.asList("a", "b"));
+        scoreboard.setLine(1, "b");
+        scoreboard.getTeam().setOption(Team.Option.COLLISION_RULE, Team.OptionStatus.ALWAYS);
+        assertTrue(sender.calls.isEmpty(), "unexpected updates " + sender.calls);
+    }
+
+    @Test
+    void updatesGoToEveryViewerUntilHidden() {
+        scoreboard.show(alice);
+        scoreboard.show(bob);
+        sender.calls.clear();
+
+        scoreboard.setTitle("Title");
+        assertEquals(new HashSet<>(Arrays.asList("updateObjective alice game Title", "updateObjective bob game Title")),
+                new HashSet<>(sender.calls));
+
+        scoreboard.hide(bob);
+        sender.calls.clear();
+        scoreboard.setTitle("Other");
+        assertEquals(Collections.singletonList("updateObjective alice game Other"), sender.calls);
+    }
+
+    @Test
+    void teamEntriesAreSentOnce() {
+        Team team = scoreboard.getTeam();
+        scoreboard.show(alice);
+        sender.calls.clear();
+
+        team.addEntry("bob");
+        team.addEntry("bob");
+        assertFalse(team.removeEntry("carol"));
+        assertTrue(team.removeEntry("bob"));
+        assertEquals(Arrays.asList("addTeamEntries alice game [bob]", "removeTeamEntries alice game [bob]"),
+                sender.calls);
+    }
+
+    @Test
+    void teamOptionChangesAreSent() {
+        Team team = scoreboard.getTeam();
+        scoreboard.show(alice);
+        sender.calls.clear();
+
+        team.setOption(Team.Option.NAME_TAG_VISIBILITY, Team.OptionStatus.NEVER);
+        assertEquals(Team.OptionStatus.NEVER, team.getOption(Team.Option.NAME_TAG_VISIBILITY));
+        team.setPrefix("[A] ");
+        assertEquals(Arrays.asList("updateTeam alice game", "updateTeam alice game"), sender.calls);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void playersAreBackedByEntries() {
+        Team team = scoreboard.getTeam();
+        team.addEntry("alice");
+        team.addEntry("bob");
+
+        List<String> names = new ArrayList<>();
+        for (OfflinePlayer player : team.getPlayers())
+            names.add(player.getName());
+        assertEquals(Arrays.asList("alice", "bob"), names);
+        assertTrue(team.hasPlayer(MockServer.offlinePlayer("alice")));
+    }
+
+    @Test
+    void scoreboardExposesTheTeam() {
+        Team team = scoreboard.getTeam();
+        team.addEntry("alice");
+
+        Scoreboard board = team.getScoreboard();
+        assertNotNull(board);
+        assertSame(team, board.getTeam("game"));
+        assertSame(team, board.getEntryTeam("alice"));
+        assertNull(board.getEntryTeam("bob"));
+        assertEquals(Collections.singleton(team), board.getTeams());
+        assertTrue(board.getObjectives().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> board.registerNewTeam("game"));
+    }
+
+    @Test
+    void unregisterRemovesTheTeamFromViewers() {
+        Team team = scoreboard.getTeam();
+        Scoreboard board = team.getScoreboard();
+        scoreboard.show(alice);
+        sender.calls.clear();
+
+        team.unregister();
+        assertEquals(Collections.singletonList("removeTeam alice game"), sender.calls);
+        assertThrows(IllegalStateException.class, team::getName);
+        assertThrows(IllegalStateException.class, () -> team.addEntry("bob"));
+        assertThrows(IllegalStateException.class, team::unregister);
+        assertNull(board.getTeam("game"));
+        assertTrue(board.getTeams().isEmpty());
+
+        sender.calls.clear();
+        scoreboard.show(bob);
+        scoreboard.hide(alice);
+        assertEquals(Arrays.asList("createObjective bob game game", "removeObjective alice game"), sender.calls);
+    }
+
+}